@@ -0,0 +1,43 @@
+package com.project.benchmarks;
+
+import com.project.dto.ShippingLabelDto;
+import com.project.util.ShippingLabelPdfGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BarcodeBenchmark {
+
+    private static final int AWBS = 1024;
+
+    private String[] awbs;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        this.awbs = ShippingLabelDtoGenerator.generate(AWBS).stream()
+                .map(ShippingLabelDto::getAwb)
+                .toArray(String[]::new);
+    }
+
+    @Benchmark
+    public BufferedImage generateCode128BarcodeImage() {
+        return ShippingLabelPdfGenerator.generateCode128BarcodeImage(this.awbs[this.next++ & (AWBS - 1)]);
+    }
+}
@@ -0,0 +1,59 @@
+package com.project.benchmarks;
+
+import com.project.dto.ShippingLabelDto;
+import com.project.exceptions.DispatchDocumentException;
+import com.project.util.ShippingLabelPdfGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to the first 4-label PDF in a fresh JVM: one call per fork, no warm-up, so class loading,
+ * font and barcode initialisation and interpreted execution are all inside the measurement. The
+ * {@code fastStart} variant uses the start-up flags recommended for one-shot processes and an
+ * AppCDS archive recorded against the benchmark jar:
+ * <pre>
+ * java -XX:ArchiveClassesAtExit=benchmarks/target/labels.jsa -cp benchmarks/target/benchmarks.jar com.project.Main --train
+ * java -jar benchmarks/target/benchmarks.jar ColdStartBenchmark
+ * </pre>
+ * JVM boot itself is outside the measurement; time {@code Main} from the shell for the wall time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+public class ColdStartBenchmark {
+
+    private List<ShippingLabelDto> dtos;
+
+    @Setup
+    public void setUp() {
+        this.dtos = ShippingLabelDtoGenerator.generate(4);
+    }
+
+    @Benchmark
+    @Fork(20)
+    public void firstPdf() throws DispatchDocumentException {
+        new ShippingLabelPdfGenerator().generateShippingLabel(this.dtos, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    @Fork(value = 20, jvmArgsAppend = {
+        "-XX:SharedArchiveFile=benchmarks/target/labels.jsa", "-XX:TieredStopAtLevel=1", "-XX:+UseSerialGC"
+    })
+    public void fastStart() throws DispatchDocumentException {
+        new ShippingLabelPdfGenerator().generateShippingLabel(this.dtos, OutputStream.nullOutputStream());
+    }
+}
@@ -0,0 +1,49 @@
+package com.project.benchmarks;
+
+import com.project.dto.ShippingLabelDto;
+import com.project.exceptions.DispatchDocumentException;
+import com.project.util.LabelRenderMode;
+import com.project.util.ShippingLabelPdfGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** One A4 page of 4 labels, i.e. a single {@code createPage} plus the document open and close. */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PageBenchmark {
+
+    @Param({"TABLE", "TEMPLATE", "DIRECT"})
+    public LabelRenderMode renderMode;
+
+    private List<ShippingLabelDto> dtos;
+    private ShippingLabelPdfGenerator generator;
+
+    @Setup
+    public void setUp() {
+        this.dtos = ShippingLabelDtoGenerator.generate(4);
+        this.generator = new ShippingLabelPdfGenerator();
+        this.generator.setRenderMode(this.renderMode);
+    }
+
+    @Benchmark
+    public void createPage() throws DispatchDocumentException {
+        this.generator.generateShippingLabel(this.dtos, OutputStream.nullOutputStream());
+    }
+}
@@ -0,0 +1,61 @@
+package com.project.benchmarks;
+
+import com.project.dto.ShippingLabelDto;
+import com.project.exceptions.DispatchDocumentException;
+import com.project.util.ShippingLabelPdfGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/** Labels per second of the parallel renderer against the number of rendering threads. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(ParallelScalingBenchmark.LABELS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ParallelScalingBenchmark {
+
+    static final int LABELS = 2000;
+
+    @Param({"1", "2", "4", "8", "16", "32"})
+    public int threads;
+
+    private List<ShippingLabelDto> dtos;
+    private ShippingLabelPdfGenerator generator;
+    private ExecutorService executor;
+
+    @Setup
+    public void setUp() {
+        this.dtos = ShippingLabelDtoGenerator.generate(LABELS);
+        this.generator = new ShippingLabelPdfGenerator();
+        this.executor = Executors.newFixedThreadPool(this.threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.executor.shutdown();
+    }
+
+    @Benchmark
+    public void generateShippingLabel() throws DispatchDocumentException {
+        this.generator.generateShippingLabel(this.dtos, OutputStream.nullOutputStream(), this.executor);
+    }
+}
@@ -0,0 +1,93 @@
+package com.project.benchmarks;
+
+import com.project.dto.ShippingLabelDto;
+import com.project.exceptions.DispatchDocumentException;
+import com.project.service.ShardedLabelCoordinator;
+import com.project.util.LabelRenderMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wall time of a sharded run over a generated CSV manifest as the number of worker JVMs grows.
+ * Each operation includes worker start-up, so the gain over one worker shows how much of the run
+ * is rendering that parallelises across processes. Run on a machine with at least as many cores as
+ * the largest worker count.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class ShardedScalingBenchmark {
+
+    @Param({"20000"})
+    public int labels;
+
+    @Param({"1", "2", "4", "8"})
+    public int workers;
+
+    private Path directory;
+    private Path manifest;
+
+    @Setup
+    public void setUp() throws IOException, ReflectiveOperationException {
+        this.directory = Files.createTempDirectory("sharded-benchmark");
+        this.manifest = this.directory.resolve("manifest.csv");
+        Method[] getters = Arrays.stream(ShippingLabelDto.class.getMethods())
+                .filter(method -> method.getName().startsWith("get") && method.getParameterCount() == 0)
+                .filter(method -> method.getDeclaringClass() != Object.class)
+                .sorted(Comparator.comparing(Method::getName))
+                .toArray(Method[]::new);
+        try (BufferedWriter writer = Files.newBufferedWriter(this.manifest)) {
+            List<String> header = new ArrayList<>();
+            for (Method getter : getters) header.add(getter.getName().substring(3));
+            writer.write(String.join(",", header));
+            writer.newLine();
+            for (ShippingLabelDto dto : ShippingLabelDtoGenerator.generate(this.labels)) {
+                List<String> row = new ArrayList<>();
+                for (Method getter : getters) {
+                    Object value = getter.invoke(dto);
+                    row.add(value == null ? "" : '"' + value.toString().replace("\"", "\"\"") + '"');
+                }
+                writer.write(String.join(",", row));
+                writer.newLine();
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(this.directory.resolve("labels.pdf"));
+        Files.deleteIfExists(this.manifest);
+        Files.deleteIfExists(this.directory);
+    }
+
+    @Benchmark
+    public long shardedRun() throws DispatchDocumentException {
+        ShardedLabelCoordinator coordinator = new ShardedLabelCoordinator(
+                this.workers, LabelRenderMode.TEMPLATE, "A4_4UP", this.directory, List.of("-Xmx512m"));
+        return coordinator.generate(this.manifest, this.directory.resolve("labels.pdf"));
+    }
+}
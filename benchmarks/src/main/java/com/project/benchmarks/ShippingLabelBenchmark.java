@@ -0,0 +1,59 @@
+package com.project.benchmarks;
+
+import com.project.dto.ShippingLabelDto;
+import com.project.exceptions.DispatchDocumentException;
+import com.project.util.LabelRenderMode;
+import com.project.util.ShippingLabelPdfGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end generation of a whole manifest into a discarding stream. Build and run with
+ * <pre>
+ * mvn install &amp;&amp; mvn -f benchmarks/pom.xml package
+ * java -jar benchmarks/target/benchmarks.jar -prof gc
+ * </pre>
+ * where {@code -prof gc} adds the allocation rate and bytes allocated per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ShippingLabelBenchmark {
+
+    @Param({"1", "100", "10000"})
+    public int labels;
+
+    @Param({"TABLE", "TEMPLATE", "DIRECT"})
+    public LabelRenderMode renderMode;
+
+    private List<ShippingLabelDto> dtos;
+    private ShippingLabelPdfGenerator generator;
+
+    @Setup
+    public void setUp() {
+        this.dtos = ShippingLabelDtoGenerator.generate(this.labels);
+        this.generator = new ShippingLabelPdfGenerator();
+        this.generator.setRenderMode(this.renderMode);
+    }
+
+    @Benchmark
+    public void generateShippingLabel() throws DispatchDocumentException {
+        this.generator.generateShippingLabel(this.dtos, OutputStream.nullOutputStream());
+    }
+}
@@ -0,0 +1,65 @@
+package com.project.benchmarks;
+
+import com.project.dto.ShippingLabelDto;
+import com.project.util.ShippingLabelDtoSetters;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Builds synthetic labels from a fixed seed so that runs are comparable across commits. Every
+ * property is filled through its setter according to the setter's parameter type, visiting the
+ * setters in name order so the sequence of random draws never changes.
+ */
+public final class ShippingLabelDtoGenerator {
+
+    private static final long SEED = 20240601L;
+    private static final String[] WORDS = {
+        "Plot", "12", "Sector", "44", "Near", "Metro", "Station", "Industrial", "Area", "Phase", "II",
+        "Gurugram", "Haryana", "Warehouse", "Block", "C", "Ground", "Floor", "Opposite", "Market"
+    };
+
+    private ShippingLabelDtoGenerator() {
+    }
+
+    public static List<ShippingLabelDto> generate(int count) {
+        Random random = new Random(SEED);
+        List<ShippingLabelDto> dtos = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            dtos.add(ShippingLabelDtoSetters.populate(setter -> value(setter, index, random)));
+        }
+        return dtos;
+    }
+
+    private static Object value(Method setter, int index, Random random) {
+        Class<?> type = setter.getParameterTypes()[0];
+        String property = setter.getName().substring(3).toLowerCase();
+        if (type == String.class) {
+            if (property.contains("address") || property.contains("details")) return address(random);
+            if (property.contains("awb")) return String.format("AWB%012d", Math.abs(random.nextLong() % 1_000_000_000_000L));
+            if (property.contains("pincode")) return String.valueOf(100000 + random.nextInt(900000));
+            return setter.getName().substring(3) + " " + random.nextInt(10_000);
+        }
+        if (type == Boolean.class || type == boolean.class) return random.nextInt(5) == 0;
+        if (type == Integer.class || type == int.class) return index % 1000 + 1;
+        if (type == Long.class || type == long.class) return 1_000_000L + random.nextInt(1000);
+        if (type.isEnum()) {
+            Object[] constants = type.getEnumConstants();
+            return constants[random.nextInt(constants.length)];
+        }
+        return null;
+    }
+
+    private static String address(Random random) {
+        StringBuilder builder = new StringBuilder();
+        int words = 8 + random.nextInt(8);
+        for (int i = 0; i < words; i++) {
+            if (i > 0) builder.append(' ');
+            builder.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return builder.toString();
+    }
+}
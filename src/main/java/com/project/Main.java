@@ -2,16 +2,159 @@ package com.project;
 
 import com.project.dto.ShippingLabelDto;
 import com.project.exceptions.DispatchDocumentException;
+import com.project.service.ShardedLabelCoordinator;
+import com.project.util.LabelLayout;
+import com.project.util.LabelMetrics;
+import com.project.util.LabelRenderMode;
+import com.project.util.LabelWarmup;
+import com.project.util.ManifestReader;
 import com.project.util.ShippingLabelPdfGenerator;
 
-import java.io.File;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
 
+/**
+ * Renders a manifest from the command line:
+ * {@code Main <manifest.csv|manifest.jsonl> <output.pdf|output.zpl> [TABLE|TEMPLATE|DIRECT] [layout]},
+ * where the layout is the name of a {@link LabelLayout} preset. Rows are streamed from the manifest
+ * into the generator, so memory stays flat however large the manifest is. Throughput is reported
+ * on completion and the exit status is non-zero on failure.
+ *
+ * <p>{@code Main --workers <n> <manifest> <output.pdf> [mode] [layout]} splits the manifest across
+ * {@code n} worker JVMs started with the heap and GC options of this one; see
+ * {@link ShardedLabelCoordinator}. {@code --shard} is the worker entry point it uses.
+ *
+ * <p>{@code Main --train} renders a synthetic batch and exits; it is the training run used to
+ * record an AppCDS archive for fast start-up.
+ */
 public class Main {
-    public static void main(String[] args) throws DispatchDocumentException {
+
+    private static final int TRAINING_LABELS = 16;
+
+    public static void main(String[] args) {
+        if (args.length == 1 && args[0].equals("--train")) {
+            try {
+                LabelWarmup.train(TRAINING_LABELS);
+            } catch (DispatchDocumentException ex) {
+                fail(ex.getMessage(), null);
+            }
+            return;
+        }
+        if (args.length == 9 && args[0].equals("--shard")) {
+            shard(args);
+            return;
+        }
+        if (args.length >= 4 && args[0].equals("--workers")) {
+            coordinate(args);
+            return;
+        }
+        if (args.length < 2) usage();
+        LabelWarmup.preload();
+        ShippingLabelPdfGenerator generator = new ShippingLabelPdfGenerator();
+        try {
+            if (args.length > 2) generator.setRenderMode(LabelRenderMode.valueOf(args[2]));
+            if (args.length > 3) generator.setLayout(LabelLayout.named(args[3]));
+        } catch (IllegalArgumentException ex) {
+            System.err.println("Unknown render mode or layout: " + ex.getMessage());
+            System.exit(2);
+        }
+
+        Path output = Path.of(args[1]);
+        long started = System.nanoTime();
+        try (ManifestReader manifest = new ManifestReader(Path.of(args[0]));
+             OutputStream stream = new BufferedOutputStream(Files.newOutputStream(output), 1 << 16)) {
+            if (output.toString().endsWith(".zpl")) generator.generateZplLabel(manifest, stream);
+            else generator.generateShippingLabel(manifest, stream);
+        } catch (IOException | RuntimeException | DispatchDocumentException ex) {
+            // any failure, including a malformed manifest row, must remove the partial output
+            fail(ex.getMessage(), output);
+        }
+
+        LabelMetrics metrics = generator.getMetrics();
+        double seconds = (System.nanoTime() - started) / 1e9;
+        long labels = metrics.getLabels();
+        System.out.printf("%d labels, %d pages, %.1f MB in %.2f s: %.0f labels/s, %d bytes/label%n",
+                labels, metrics.getPages(), metrics.getBytesWritten() / 1e6, seconds,
+                labels / seconds, metrics.getBytesPerLabel());
+    }
+
+    /**
+     * {@code --shard <manifest> <output> <first> <count> <mode> <layout> <offset> <line>}, run by the
+     * coordinator; the offset and line say where in the manifest label {@code first} starts.
+     */
+    private static void shard(String[] args) {
+        LabelWarmup.preload();
+        Path output = Path.of(args[2]);
+        long first = Long.parseLong(args[3]);
+        long count = Long.parseLong(args[4]);
         ShippingLabelPdfGenerator generator = new ShippingLabelPdfGenerator();
-        List<ShippingLabelDto> dtos = new ArrayList<>();
-        generator.generateShippingLabel(dtos,new File("sample.pdf"));
+        generator.setRenderMode(LabelRenderMode.valueOf(args[5]));
+        generator.setLayout(LabelLayout.named(args[6]));
+        try (ManifestReader manifest = new ManifestReader(Path.of(args[1]));
+             OutputStream stream = new BufferedOutputStream(Files.newOutputStream(output), 1 << 16)) {
+            manifest.seek(new ManifestReader.Position(Long.parseLong(args[7]), Long.parseLong(args[8])));
+            Iterator<ShippingLabelDto> slice = new Iterator<>() {
+                private long remaining = count;
+
+                @Override
+                public boolean hasNext() {
+                    return this.remaining > 0 && manifest.hasNext();
+                }
+
+                @Override
+                public ShippingLabelDto next() {
+                    this.remaining--;
+                    return manifest.next();
+                }
+            };
+            generator.generateShippingLabel(slice, stream, Math.toIntExact(first));
+        } catch (IOException | RuntimeException | DispatchDocumentException ex) {
+            // any failure, including a malformed manifest row, must remove the partial output
+            fail(ex.getMessage(), output);
+        }
+    }
+
+    private static void coordinate(String[] args) {
+        Path output = Path.of(args[3]);
+        long started = System.nanoTime();
+        try {
+            Path workDirectory = Files.createTempDirectory(output.toAbsolutePath().getParent(), "shards");
+            ShardedLabelCoordinator coordinator = new ShardedLabelCoordinator(
+                    Integer.parseInt(args[1]),
+                    LabelRenderMode.valueOf(args.length > 4 ? args[4] : LabelRenderMode.TABLE.name()),
+                    args.length > 5 ? args[5] : "A4_4UP",
+                    workDirectory,
+                    ShardedLabelCoordinator.workerOptions(ManagementFactory.getRuntimeMXBean().getInputArguments()));
+            long labels = coordinator.generate(Path.of(args[2]), output);
+            Files.delete(workDirectory);
+            double seconds = (System.nanoTime() - started) / 1e9;
+            System.out.printf("%d labels on %s workers in %.2f s: %.0f labels/s%n",
+                    labels, args[1], seconds, labels / seconds);
+        } catch (IOException | IllegalArgumentException | DispatchDocumentException ex) {
+            fail(ex.getMessage(), output);
+        }
+    }
+
+    private static void usage() {
+        System.err.println("Usage: Main [--workers <n>] <manifest.csv|manifest.jsonl> <output.pdf|output.zpl> "
+                + "[TABLE|TEMPLATE|DIRECT] [A4_4UP|A4_2UP|A4_8UP|THERMAL_4X6]");
+        System.exit(2);
+    }
+
+    private static void fail(String message, Path output) {
+        System.err.println("Something went wrong in shipping label generator....\n" + message);
+        if (output != null) {
+            try {
+                Files.deleteIfExists(output);
+            } catch (IOException ignored) {
+                // the run has failed already; a leftover partial file is not worth masking that
+            }
+        }
+        System.exit(1);
     }
-}
\ No newline at end of file
+}
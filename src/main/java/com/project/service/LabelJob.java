@@ -0,0 +1,51 @@
+package com.project.service;
+
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Handle on a batch submitted to {@link LabelJobService}. */
+public class LabelJob {
+
+    private final long id;
+    private final int total;
+    private final boolean priority;
+    private final AtomicInteger rendered = new AtomicInteger();
+    private final CompletableFuture<Path> result = new CompletableFuture<>();
+
+    LabelJob(long id, int total, boolean priority) {
+        this.id = id;
+        this.total = total;
+        this.priority = priority;
+    }
+
+    public long getId() {
+        return this.id;
+    }
+
+    public boolean isPriority() {
+        return this.priority;
+    }
+
+    public int getTotal() {
+        return this.total;
+    }
+
+    /** Labels handed to the renderer so far. */
+    public int getRendered() {
+        return this.rendered.get();
+    }
+
+    public double getProgress() {
+        return this.total == 0 ? 1.0 : (double) this.rendered.get() / this.total;
+    }
+
+    /** Completes with the generated PDF, or exceptionally if rendering failed. Cancelling skips a queued job. */
+    public CompletableFuture<Path> getResult() {
+        return this.result;
+    }
+
+    void labelRendered() {
+        this.rendered.incrementAndGet();
+    }
+}
@@ -0,0 +1,153 @@
+package com.project.service;
+
+import com.project.dto.ShippingLabelDto;
+import com.project.exceptions.DispatchDocumentException;
+import com.project.util.LabelMetrics;
+import com.project.util.ShippingLabelPdfGenerator;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Renders label batches asynchronously on a fixed pool of workers. A batch holding any label
+ * flagged by {@link ShippingLabelDto#getPriority()} jumps ahead of every standard batch still in
+ * the queue; within a class, batches run in submission order. At most {@code capacity} batches
+ * may be queued or running, after which {@link #submit} blocks until one finishes.
+ *
+ * <p>Priority is decided per batch, not per label. A large standard wave holding one flagged label
+ * is scheduled as priority work as a whole, and flagged labels in a batch that is already running
+ * wait for the rest of it. Use {@link #submitByPriority} to have the flagged labels of a mixed
+ * batch rendered as a job of their own.
+ */
+public class LabelJobService implements AutoCloseable {
+
+    private final ShippingLabelPdfGenerator generator;
+    private final Path outputDirectory;
+    private final ThreadPoolExecutor workers;
+    private final Semaphore capacity;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public LabelJobService(ShippingLabelPdfGenerator generator, Path outputDirectory, int threads, int capacity) {
+        this.generator = generator;
+        this.outputDirectory = outputDirectory;
+        this.capacity = new Semaphore(capacity);
+        this.workers = new ThreadPoolExecutor(
+                threads, threads, 0L, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>());
+    }
+
+    /**
+     * Splits the batch into its flagged and its standard labels and submits each part that is not
+     * empty as its own job, flagged first. Each job writes its own PDF.
+     */
+    public List<LabelJob> submitByPriority(List<ShippingLabelDto> dtos) throws InterruptedException {
+        List<ShippingLabelDto> flagged = new ArrayList<>();
+        List<ShippingLabelDto> standard = new ArrayList<>();
+        for (ShippingLabelDto dto : dtos) {
+            if (Boolean.TRUE.equals(dto.getPriority())) flagged.add(dto);
+            else standard.add(dto);
+        }
+        List<LabelJob> jobs = new ArrayList<>(2);
+        if (!flagged.isEmpty()) jobs.add(this.submit(flagged));
+        if (!standard.isEmpty()) jobs.add(this.submit(standard));
+        return jobs;
+    }
+
+    public LabelJob submit(List<ShippingLabelDto> dtos) throws InterruptedException {
+        boolean priority = dtos.stream().anyMatch(dto -> Boolean.TRUE.equals(dto.getPriority()));
+        LabelJob job = new LabelJob(this.sequence.incrementAndGet(), dtos.size(), priority);
+        this.capacity.acquire();
+        this.generator.getMetrics().jobQueued();
+        try {
+            this.workers.execute(new QueuedJob(job, dtos, System.nanoTime()));
+        } catch (RejectedExecutionException ex) {
+            this.generator.getMetrics().jobDequeued();
+            this.capacity.release();
+            throw ex;
+        }
+        return job;
+    }
+
+    /** Stops taking jobs and waits for the queued ones to finish. */
+    @Override
+    public void close() {
+        this.workers.shutdown();
+        try {
+            this.workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void render(LabelJob job, List<ShippingLabelDto> dtos) {
+        Path path = this.outputDirectory.resolve("labels_" + job.getId() + ".pdf");
+        Iterator<ShippingLabelDto> source = dtos.iterator();
+        Iterator<ShippingLabelDto> progress = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return source.hasNext();
+            }
+
+            @Override
+            public ShippingLabelDto next() {
+                ShippingLabelDto dto = source.next();
+                job.labelRendered();
+                return dto;
+            }
+        };
+        try (OutputStream stream = new BufferedOutputStream(Files.newOutputStream(path))) {
+            this.generator.generateShippingLabel(progress, stream);
+        } catch (IOException | DispatchDocumentException ex) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException ignored) {
+                // the job has failed already; a leftover partial file is not worth masking that
+            }
+            job.getResult().completeExceptionally(ex);
+            return;
+        }
+        job.getResult().complete(path);
+    }
+
+    private class QueuedJob implements Runnable, Comparable<QueuedJob> {
+
+        private final LabelJob job;
+        private final List<ShippingLabelDto> dtos;
+        private final long queuedAt;
+
+        QueuedJob(LabelJob job, List<ShippingLabelDto> dtos, long queuedAt) {
+            this.job = job;
+            this.dtos = dtos;
+            this.queuedAt = queuedAt;
+        }
+
+        @Override
+        public void run() {
+            LabelMetrics metrics = LabelJobService.this.generator.getMetrics();
+            metrics.jobDequeued();
+            metrics.record(LabelMetrics.Stage.QUEUE_WAIT, this.queuedAt);
+            try {
+                if (!this.job.getResult().isDone()) LabelJobService.this.render(this.job, this.dtos);
+            } finally {
+                LabelJobService.this.capacity.release();
+            }
+        }
+
+        @Override
+        public int compareTo(QueuedJob other) {
+            if (this.job.isPriority() != other.job.isPriority()) return this.job.isPriority() ? -1 : 1;
+            return Long.compare(this.job.getId(), other.job.getId());
+        }
+    }
+}
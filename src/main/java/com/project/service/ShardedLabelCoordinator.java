@@ -0,0 +1,155 @@
+package com.project.service;
+
+import com.project.exceptions.DispatchDocumentException;
+import com.project.util.LabelLayout;
+import com.project.util.LabelRenderMode;
+import com.project.util.ManifestReader;
+import com.project.util.ShippingLabelPdfGenerator;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Renders one manifest across several local worker JVMs, so heap and GC pressure are split between
+ * processes instead of growing in one. The manifest is cut into contiguous shards of whole pages;
+ * each worker runs {@code Main --shard} on its shard with the global index of its first label, so
+ * every label lands in the same slot and on the same page as in a single-process run. The shard
+ * documents are then concatenated in order without being rendered again.
+ *
+ * <p>The manifest is scanned once, recording where every page starts, and each worker seeks
+ * straight to the start of its shard, so parsing does not grow with the number of workers.
+ *
+ * <p>Workers use the same {@code java} binary and class path as the coordinator. Their output goes
+ * to {@code shard_<n>.log} in the work directory, which is kept when a worker fails.
+ */
+@Slf4j
+public class ShardedLabelCoordinator {
+
+    /**
+     * JVM options that are safe to give every worker: heap, stack and GC sizing, the collector and
+     * a shared class archive. Anything naming a port or an output file, such as a debug agent, a
+     * GC log or a class archive to record, would make the workers collide.
+     */
+    private static final Pattern WORKER_OPTIONS = Pattern.compile(
+            "-Xm[sxn].*|-Xss.*|-XX:(Initial|Min|Max)RAMPercentage=.*|-XX:MaxMetaspaceSize=.*"
+            + "|-XX:[+-]Use\\w*GC|-XX:MaxGCPauseMillis=.*|-XX:SharedArchiveFile=.*|-XX:TieredStopAtLevel=.*");
+
+    private final int workers;
+    private final LabelRenderMode renderMode;
+    private final String layout;
+    private final Path workDirectory;
+    private final List<String> jvmOptions;
+    private final ShippingLabelPdfGenerator generator = new ShippingLabelPdfGenerator();
+
+    public ShardedLabelCoordinator(
+            int workers, LabelRenderMode renderMode, String layout, Path workDirectory, List<String> jvmOptions) {
+        this.workers = workers;
+        this.renderMode = renderMode;
+        this.layout = layout;
+        this.workDirectory = workDirectory;
+        this.jvmOptions = jvmOptions;
+        this.generator.setLayout(LabelLayout.named(layout));
+    }
+
+    /** The options in {@code jvmArguments} that can be passed on to workers. */
+    public static List<String> workerOptions(List<String> jvmArguments) {
+        List<String> options = new ArrayList<>();
+        for (String argument : jvmArguments) {
+            if (WORKER_OPTIONS.matcher(argument).matches()) options.add(argument);
+        }
+        return options;
+    }
+
+    /** Returns the number of labels rendered. */
+    public long generate(Path manifest, Path output) throws DispatchDocumentException {
+        List<Process> processes = new ArrayList<>();
+        List<Path> shards = new ArrayList<>();
+        try {
+            Files.createDirectories(this.workDirectory);
+            int labelsPerPage = this.generator.getLayout().getLabelsPerPage();
+            List<ManifestReader.Position> pages = new ArrayList<>();
+            long total = 0;
+            try (ManifestReader reader = new ManifestReader(manifest)) {
+                ManifestReader.Position position = reader.position();
+                while (reader.skip(1) == 1) {
+                    if (total++ % labelsPerPage == 0) pages.add(position);
+                    position = reader.position();
+                }
+            }
+            if (total == 0) throw new DispatchDocumentException("No shipping labels to generate");
+
+            int pagesPerShard = (pages.size() + this.workers - 1) / this.workers;
+            for (int page = 0; page < pages.size(); page += pagesPerShard) {
+                Path shard = this.workDirectory.resolve("shard_" + shards.size() + ".pdf");
+                Path log = this.workDirectory.resolve("shard_" + shards.size() + ".log");
+                long first = (long) page * labelsPerPage;
+                long count = Math.min((long) pagesPerShard * labelsPerPage, total - first);
+                processes.add(new ProcessBuilder(this.command(manifest, shard, first, count, pages.get(page)))
+                        .redirectErrorStream(true)
+                        .redirectOutput(log.toFile())
+                        .start());
+                shards.add(shard);
+            }
+
+            List<String> failed = new ArrayList<>();
+            for (int i = 0; i < processes.size(); i++) {
+                int exitCode = processes.get(i).waitFor();
+                if (exitCode != 0) failed.add("shard " + i + " exited with " + exitCode + ", see shard_" + i + ".log");
+            }
+            if (!failed.isEmpty()) throw new DispatchDocumentException(String.join("; ", failed));
+
+            // assembled next to the output, so the rename never crosses filesystems
+            Path tmp = Files.createTempFile(
+                    output.toAbsolutePath().getParent(), output.getFileName().toString(), ".tmp");
+            try {
+                try (OutputStream stream = new BufferedOutputStream(Files.newOutputStream(tmp))) {
+                    this.generator.mergeShippingLabels(shards, stream);
+                }
+                Files.move(tmp, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+            for (int i = 0; i < shards.size(); i++) {
+                Files.delete(shards.get(i));
+                Files.deleteIfExists(this.workDirectory.resolve("shard_" + i + ".log"));
+            }
+            return total;
+        } catch (IOException ex) {
+            log.error("Sharded shipping label generation failed", ex);
+            throw new DispatchDocumentException(ex.getMessage());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new DispatchDocumentException("Shipping label generation was interrupted");
+        } finally {
+            for (Process process : processes) process.destroy();
+        }
+    }
+
+    private List<String> command(
+            Path manifest, Path shard, long first, long count, ManifestReader.Position position) {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(this.jvmOptions);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add("com.project.Main");
+        command.add("--shard");
+        command.add(manifest.toString());
+        command.add(shard.toString());
+        command.add(Long.toString(first));
+        command.add(Long.toString(count));
+        command.add(this.renderMode.name());
+        command.add(this.layout);
+        command.add(Long.toString(position.offset()));
+        command.add(Long.toString(position.line()));
+        return command;
+    }
+}
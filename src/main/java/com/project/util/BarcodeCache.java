@@ -0,0 +1,86 @@
+package com.project.util;
+
+import com.itextpdf.text.BadElementException;
+import com.itextpdf.text.Image;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded LRU cache of ready-to-embed Code128 images keyed by barcode text and barcode parameters.
+ * Reprints and split shipments reuse the image instead of running barcode4j again, and because
+ * iText embeds an image once per document, repeated AWBs in one document share a single stream.
+ * Lookups are safe from any thread; a miss is rendered outside the lock, so two threads missing
+ * on the same key may both render it.
+ */
+public class BarcodeCache {
+
+    private final int maxEntries;
+    private final Map<Key, Image> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public BarcodeCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Image> eldest) {
+                if (size() <= BarcodeCache.this.maxEntries) return false;
+                BarcodeCache.this.evictions.increment();
+                return true;
+            }
+        };
+    }
+
+    public Image get(String barcodeText) throws BadElementException {
+        return this.get(
+                barcodeText,
+                ShippingLabelPdfGenerator.BARCODE_BAR_HEIGHT,
+                ShippingLabelPdfGenerator.BARCODE_DPI);
+    }
+
+    public Image get(String barcodeText, double barHeight, int dpi) throws BadElementException {
+        Key key = new Key(barcodeText, barHeight, dpi);
+        Image image;
+        synchronized (this.entries) {
+            image = this.entries.get(key);
+        }
+        if (image != null) {
+            this.hits.increment();
+            return image;
+        }
+        this.misses.increment();
+        image = ShippingLabelPdfGenerator.createCode128BarcodeImage(barcodeText, barHeight, dpi);
+        synchronized (this.entries) {
+            this.entries.put(key, image);
+        }
+        return image;
+    }
+
+    public int size() {
+        synchronized (this.entries) {
+            return this.entries.size();
+        }
+    }
+
+    public int getMaxEntries() {
+        return this.maxEntries;
+    }
+
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    public long getEvictions() {
+        return this.evictions.sum();
+    }
+
+    private record Key(String text, double barHeight, int dpi) {
+    }
+}
@@ -0,0 +1,249 @@
+package com.project.util;
+
+import com.itextpdf.text.DocumentException;
+
+import com.project.dto.ShippingLabelDto;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders a manifest as a run of durable segments in a work directory. A segment holds a fixed
+ * number of whole pages and is written to a temporary file, synced and renamed into place before
+ * a line recording it is appended to {@code journal.log}. When the run is started again with the
+ * same manifest and work directory, every segment in the journal is skipped, so a crash only costs
+ * the segment that was in flight. A committed segment whose file has gone missing is rendered
+ * again rather than dropped from the output.
+ *
+ * <p>The journal records the segment size and render mode of the run, and each segment line holds
+ * a fingerprint of the labels in it: a hash over their {@link RenderedLabelCache#key} values. A
+ * resume with another render mode, or with a manifest whose labels differ from a committed
+ * segment, fails instead of merging stale pages into the output.
+ *
+ * <p>A segment that fails to render is retried label by label. Labels that still fail are left
+ * out and reported by their index in the manifest; the rest of the segment is kept. Once every
+ * segment is committed they are concatenated into the output file and the work directory is
+ * removed, unless it holds files of its own.
+ */
+@Slf4j
+class CheckpointedLabelWriter {
+
+    private static final String JOURNAL = "journal.log";
+
+    private final ShippingLabelPdfGenerator generator;
+    private final Path workDirectory;
+    private final int labelsPerSegment;
+    private final LabelRenderMode renderMode;
+
+    CheckpointedLabelWriter(ShippingLabelPdfGenerator generator, Path workDirectory, int pagesPerSegment) {
+        this.generator = generator;
+        this.workDirectory = workDirectory;
+        this.labelsPerSegment = pagesPerSegment * generator.getLayout().getLabelsPerPage();
+        this.renderMode = generator.getRenderMode();
+    }
+
+    /** Returns the manifest indices of the labels that could not be rendered. */
+    List<Integer> write(Iterator<ShippingLabelDto> dtos, Path output) throws IOException, DocumentException {
+        Files.createDirectories(this.workDirectory);
+        this.deleteTemporaryFiles();
+        Map<Integer, Segment> committed = this.readJournal();
+        List<Integer> failed = new ArrayList<>();
+        List<Path> segments = new ArrayList<>();
+
+        try (FileChannel journal = FileChannel.open(
+                this.workDirectory.resolve(JOURNAL),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            if (journal.size() == 0) {
+                this.append(journal, "labels-per-segment " + this.labelsPerSegment);
+                this.append(journal, "render-mode " + this.renderMode);
+            }
+            int first = 0;
+            for (int segment = 0; dtos.hasNext(); segment++) {
+                Path path = this.workDirectory.resolve(String.format("segment_%06d.pdf", segment));
+                List<ShippingLabelDto> batch = new ArrayList<>(this.labelsPerSegment);
+                while (dtos.hasNext() && batch.size() < this.labelsPerSegment) batch.add(dtos.next());
+                String fingerprint = this.fingerprint(batch);
+
+                Segment done = committed.get(segment);
+                if (done != null && (done.first != first || !done.fingerprint.equals(fingerprint))) {
+                    throw new IOException("Work directory " + this.workDirectory + " holds segment " + segment
+                            + " of a different manifest");
+                }
+                if (done != null && done.failed.size() < batch.size() && !Files.exists(path)) {
+                    log.warn("Segment {} is in the journal but {} is missing; rendering it again", segment, path);
+                    done = null;
+                }
+                List<Integer> segmentFailed;
+                if (done == null) {
+                    segmentFailed = this.renderSegment(batch, first, path);
+                    this.append(journal, segment + " " + first + " " + batch.size() + " " + join(segmentFailed)
+                            + " " + fingerprint);
+                } else {
+                    segmentFailed = done.failed;
+                }
+                if (Files.exists(path)) segments.add(path);
+                failed.addAll(segmentFailed);
+                first += batch.size();
+            }
+        }
+        if (segments.isEmpty()) throw new DocumentException("No shipping label could be rendered");
+
+        this.concatenate(segments, output);
+        for (Path segment : segments) Files.delete(segment);
+        Files.delete(this.workDirectory.resolve(JOURNAL));
+        try {
+            Files.delete(this.workDirectory);
+        } catch (DirectoryNotEmptyException ex) {
+            // the caller keeps files of its own there; the run's files are gone
+        }
+        return failed;
+    }
+
+    private List<Integer> renderSegment(List<ShippingLabelDto> batch, int first, Path path)
+            throws IOException, DocumentException {
+        List<Integer> failed = new ArrayList<>();
+        byte[] bytes;
+        try {
+            bytes = this.render(batch, first);
+        } catch (DocumentException | RuntimeException ex) {
+            List<ShippingLabelDto> rendered = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                try {
+                    this.generator.renderLabel(batch.get(i));
+                    rendered.add(batch.get(i));
+                } catch (DocumentException | RuntimeException labelEx) {
+                    log.warn("Shipping label {} failed and is left out", first + i, labelEx);
+                    failed.add(first + i);
+                }
+            }
+            if (rendered.isEmpty()) return failed;
+            bytes = this.render(rendered, first);
+        }
+
+        Path tmp = Files.createTempFile(this.workDirectory, path.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) channel.write(buffer);
+            channel.force(true);
+        }
+        Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE);
+        return failed;
+    }
+
+    private byte[] render(List<ShippingLabelDto> batch, int first) throws IOException, DocumentException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        this.generator.writeLabels(batch.iterator(), stream, first);
+        return stream.toByteArray();
+    }
+
+    /** The output is assembled next to itself, so the final rename never crosses filesystems. */
+    private void concatenate(List<Path> segments, Path output) throws IOException, DocumentException {
+        Path tmp = Files.createTempFile(output.toAbsolutePath().getParent(), output.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream stream = new BufferedOutputStream(Files.newOutputStream(tmp))) {
+                this.generator.merge(segments, stream);
+            }
+            Files.move(tmp, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /** Hash over the cache keys of the labels, which cover every printed field and the render mode. */
+    private String fingerprint(List<ShippingLabelDto> batch) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+        for (ShippingLabelDto dto : batch) {
+            digest.update(RenderedLabelCache.key(dto, this.renderMode).getBytes(StandardCharsets.US_ASCII));
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /** Segment files a crash left half written; they are never in the journal. */
+    private void deleteTemporaryFiles() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(this.workDirectory, "*.tmp")) {
+            for (Path file : files) Files.delete(file);
+        }
+    }
+
+    /**
+     * Segments already committed, with the labels each one left out. A line torn by a crash
+     * mid-append is cut off the journal, so that segment is simply rendered again.
+     */
+    private Map<Integer, Segment> readJournal() throws IOException {
+        Map<Integer, Segment> committed = new HashMap<>();
+        Path journal = this.workDirectory.resolve(JOURNAL);
+        if (!Files.exists(journal)) return committed;
+        String content = Files.readString(journal, StandardCharsets.UTF_8);
+        if (!content.isEmpty() && !content.endsWith("\n")) {
+            try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.WRITE)) {
+                channel.truncate(content.lastIndexOf('\n') + 1);
+            }
+        }
+        String[] lines = content.split("\n", -1);
+        for (int i = 0; i < lines.length - 1; i++) {
+            String[] parts = lines[i].split(" ");
+            if (parts[0].equals("labels-per-segment")) {
+                if (Integer.parseInt(parts[1]) != this.labelsPerSegment) {
+                    throw new IOException("Work directory " + this.workDirectory
+                            + " was written with " + parts[1] + " labels per segment");
+                }
+            } else if (parts[0].equals("render-mode")) {
+                if (!parts[1].equals(this.renderMode.name())) {
+                    throw new IOException("Work directory " + this.workDirectory
+                            + " was written in " + parts[1] + " mode");
+                }
+            } else if (parts.length == 5) {
+                List<Integer> failed = new ArrayList<>();
+                if (!parts[3].equals("-")) {
+                    for (String index : parts[3].split(",")) failed.add(Integer.parseInt(index));
+                }
+                committed.put(Integer.parseInt(parts[0]), new Segment(Integer.parseInt(parts[1]), failed, parts[4]));
+            }
+        }
+        return committed;
+    }
+
+    private void append(FileChannel journal, String line) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) journal.write(buffer);
+        journal.force(false);
+    }
+
+    private static String join(List<Integer> indices) {
+        if (indices.isEmpty()) return "-";
+        StringBuilder joined = new StringBuilder();
+        for (Integer index : indices) {
+            if (joined.length() > 0) joined.append(',');
+            joined.append(index);
+        }
+        return joined.toString();
+    }
+
+    private record Segment(int first, List<Integer> failed, String fingerprint) {
+    }
+}
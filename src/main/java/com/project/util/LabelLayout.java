@@ -0,0 +1,87 @@
+package com.project.util;
+
+import com.itextpdf.text.PageSize;
+import com.itextpdf.text.Rectangle;
+
+/**
+ * Grid of label slots on a page. Slot coordinates are computed once when the layout is created and
+ * filled left to right, top to bottom. A label is scaled to fit its slot, keeping its aspect ratio,
+ * and is centred horizontally against the top of the slot.
+ */
+public class LabelLayout {
+
+    /** Four labels on A4, the original quadrant layout. */
+    public static final LabelLayout A4_4UP = grid(PageSize.A4, 2, 2, 15, 30);
+    public static final LabelLayout A4_2UP = grid(PageSize.A4, 1, 2, 15, 30);
+    public static final LabelLayout A4_8UP = grid(PageSize.A4, 2, 4, 15, 30);
+    /** One label per 4x6 inch thermal label. */
+    public static final LabelLayout THERMAL_4X6 = grid(new Rectangle(288, 432), 1, 1, 6, 0);
+
+    private final Rectangle pageSize;
+    private final float labelWidth;
+    private final float labelHeight;
+    private final float[] slotX;
+    private final float[] slotTop;
+
+    public LabelLayout(
+            Rectangle pageSize, float labelWidth, float labelHeight, int columns, int rows, float margin, float gutter) {
+        this.pageSize = pageSize;
+        this.labelWidth = labelWidth;
+        this.labelHeight = labelHeight;
+        this.slotX = new float[columns * rows];
+        this.slotTop = new float[columns * rows];
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                this.slotX[row * columns + column] = margin + column * (labelWidth + gutter);
+                this.slotTop[row * columns + column] = pageSize.getHeight() - margin - row * (labelHeight + gutter);
+            }
+        }
+    }
+
+    /** A layout whose labels fill the page between the margins. */
+    public static LabelLayout grid(Rectangle pageSize, int columns, int rows, float margin, float gutter) {
+        float labelWidth = (pageSize.getWidth() - 2 * margin - (columns - 1) * gutter) / columns;
+        float labelHeight = (pageSize.getHeight() - 2 * margin - (rows - 1) * gutter) / rows;
+        return new LabelLayout(pageSize, labelWidth, labelHeight, columns, rows, margin, gutter);
+    }
+
+    /** The preset with the given constant name, such as {@code "A4_4UP"}. */
+    public static LabelLayout named(String name) {
+        return switch (name) {
+            case "A4_4UP" -> A4_4UP;
+            case "A4_2UP" -> A4_2UP;
+            case "A4_8UP" -> A4_8UP;
+            case "THERMAL_4X6" -> THERMAL_4X6;
+            default -> throw new IllegalArgumentException("No label layout named " + name);
+        };
+    }
+
+    public Rectangle getPageSize() {
+        return this.pageSize;
+    }
+
+    public int getLabelsPerPage() {
+        return this.slotX.length;
+    }
+
+    public float getLabelWidth() {
+        return this.labelWidth;
+    }
+
+    public float getLabelHeight() {
+        return this.labelHeight;
+    }
+
+    float getSlotX(int slot) {
+        return this.slotX[slot];
+    }
+
+    float getSlotTop(int slot) {
+        return this.slotTop[slot];
+    }
+
+    /** Scale that fits a label of the given natural size into a slot. */
+    float scaleToFit(float width, float height) {
+        return Math.min(this.labelWidth / width, this.labelHeight / height);
+    }
+}
@@ -0,0 +1,172 @@
+package com.project.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Per-stage timings and throughput counters of the label generator. Every recording is lock-free,
+ * so one instance can be shared by all rendering threads. Percentiles come from a power-of-two
+ * histogram and report the upper bound of the bucket they fall in.
+ */
+public class LabelMetrics implements LabelMetricsMXBean {
+
+    public enum Stage {
+        BARCODE,
+        TABLE_BUILD,
+        TABLE_WRITE,
+        PAGE_FLUSH,
+        MERGE,
+        QUEUE_WAIT
+    }
+
+    private final Timer[] timers = new Timer[Stage.values().length];
+    private final LongAdder labels = new LongAdder();
+    private final LongAdder pages = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final AtomicLong queueDepth = new AtomicLong();
+
+    public LabelMetrics() {
+        for (int i = 0; i < this.timers.length; i++) this.timers[i] = new Timer();
+    }
+
+    /** Registers this instance with the platform MBean server as {@code com.project:type=LabelMetrics,name=<name>}. */
+    public void register(String name) throws JMException {
+        ManagementFactory.getPlatformMBeanServer()
+                .registerMBean(this, new ObjectName("com.project:type=LabelMetrics,name=" + name));
+    }
+
+    /** Records the time elapsed since {@code startNanos} and returns the current time for the next stage. */
+    public long record(Stage stage, long startNanos) {
+        long now = System.nanoTime();
+        this.timers[stage.ordinal()].record(now - startNanos);
+        return now;
+    }
+
+    public void labelWritten() {
+        this.labels.increment();
+    }
+
+    public void pageWritten() {
+        this.pages.increment();
+    }
+
+    public void bytesWritten(long bytes) {
+        this.bytesWritten.add(bytes);
+    }
+
+    public void failed() {
+        this.failures.increment();
+    }
+
+    public void jobQueued() {
+        this.queueDepth.incrementAndGet();
+    }
+
+    public void jobDequeued() {
+        this.queueDepth.decrementAndGet();
+    }
+
+    @Override
+    public long getLabels() {
+        return this.labels.sum();
+    }
+
+    @Override
+    public long getPages() {
+        return this.pages.sum();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return this.bytesWritten.sum();
+    }
+
+    @Override
+    public long getBytesPerLabel() {
+        long labels = this.labels.sum();
+        return labels == 0 ? 0 : this.bytesWritten.sum() / labels;
+    }
+
+    @Override
+    public long getFailures() {
+        return this.failures.sum();
+    }
+
+    @Override
+    public long getQueueDepth() {
+        return this.queueDepth.get();
+    }
+
+    @Override
+    public Map<String, Long> getStageCounts() {
+        return this.byStage(timer -> timer.count.sum());
+    }
+
+    @Override
+    public Map<String, Long> getStageMeanMicros() {
+        return this.byStage(timer -> {
+            long count = timer.count.sum();
+            return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(timer.totalNanos.sum() / count);
+        });
+    }
+
+    @Override
+    public Map<String, Long> getStageMaxMicros() {
+        return this.byStage(timer -> TimeUnit.NANOSECONDS.toMicros(timer.maxNanos.get()));
+    }
+
+    @Override
+    public Map<String, Long> getStageP99Micros() {
+        return this.byStage(timer -> TimeUnit.NANOSECONDS.toMicros(timer.percentile(0.99)));
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < this.timers.length; i++) this.timers[i] = new Timer();
+        this.labels.reset();
+        this.pages.reset();
+        this.bytesWritten.reset();
+        this.failures.reset();
+    }
+
+    private Map<String, Long> byStage(ToLongFunction<Timer> value) {
+        Map<String, Long> values = new LinkedHashMap<>();
+        for (Stage stage : Stage.values()) values.put(stage.name(), value.applyAsLong(this.timers[stage.ordinal()]));
+        return values;
+    }
+
+    private static class Timer {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        /** Bucket i counts durations in [2^(i-1), 2^i) nanoseconds. */
+        private final AtomicLongArray buckets = new AtomicLongArray(64);
+
+        void record(long nanos) {
+            this.count.increment();
+            this.totalNanos.add(nanos);
+            this.maxNanos.accumulateAndGet(nanos, Math::max);
+            this.buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(Math.max(nanos, 0)) & 63);
+        }
+
+        long percentile(double quantile) {
+            long threshold = (long) Math.ceil(this.count.sum() * quantile);
+            long seen = 0;
+            for (int i = 0; i < 64; i++) {
+                seen += this.buckets.get(i);
+                if (seen >= threshold && seen > 0) return Math.min(1L << i, this.maxNanos.get());
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.project.util;
+
+import java.util.Map;
+
+/** JMX view of {@link LabelMetrics}. Stage maps are keyed by {@link LabelMetrics.Stage} name. */
+public interface LabelMetricsMXBean {
+
+    long getLabels();
+
+    long getPages();
+
+    long getBytesWritten();
+
+    /** Output size per label written, the figure to watch when tuning compression. */
+    long getBytesPerLabel();
+
+    long getFailures();
+
+    long getQueueDepth();
+
+    Map<String, Long> getStageCounts();
+
+    Map<String, Long> getStageMeanMicros();
+
+    Map<String, Long> getStageMaxMicros();
+
+    Map<String, Long> getStageP99Micros();
+
+    void reset();
+}
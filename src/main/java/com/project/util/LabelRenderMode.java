@@ -0,0 +1,16 @@
+package com.project.util;
+
+public enum LabelRenderMode {
+    /** Every label is laid out as a full bordered table, captions included. */
+    TABLE,
+    /**
+     * The static frame is drawn once per document into a form XObject and stamped onto every label;
+     * only the DTO fields are laid out per label.
+     */
+    TEMPLATE,
+    /**
+     * Same output as {@link #TEMPLATE}, but the fields are drawn straight onto the page at
+     * precomputed positions instead of being laid out through a table.
+     */
+    DIRECT
+}
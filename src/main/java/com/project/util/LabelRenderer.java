@@ -0,0 +1,40 @@
+package com.project.util;
+
+import com.project.dto.ShippingLabelDto;
+
+/**
+ * One callback per label section, in the order the sections appear on the label. A backend decides
+ * how each section is drawn; {@link #render} walks a label through all of them.
+ */
+public interface LabelRenderer {
+
+    void vertical(ShippingLabelDto dto);
+
+    void priority(ShippingLabelDto dto);
+
+    void trip(ShippingLabelDto dto);
+
+    void sequence(ShippingLabelDto dto);
+
+    void shipment(ShippingLabelDto dto);
+
+    void awb(ShippingLabelDto dto);
+
+    void shippingAddress(ShippingLabelDto dto);
+
+    void vendorAddress(ShippingLabelDto dto);
+
+    void footer(ShippingLabelDto dto);
+
+    static void render(ShippingLabelDto dto, LabelRenderer renderer) {
+        renderer.vertical(dto);
+        renderer.priority(dto);
+        renderer.trip(dto);
+        renderer.sequence(dto);
+        renderer.shipment(dto);
+        renderer.awb(dto);
+        renderer.shippingAddress(dto);
+        renderer.vendorAddress(dto);
+        renderer.footer(dto);
+    }
+}
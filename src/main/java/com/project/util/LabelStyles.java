@@ -0,0 +1,26 @@
+package com.project.util;
+
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.Font.FontFamily;
+
+/**
+ * Fonts and colours used by the label layout. They are created once and shared by every label and
+ * every rendering thread. iText fonts are mutable, so they stay package-private: code outside the
+ * renderers cannot reach them, and the renderers only ever pass them to phrases and chunks.
+ */
+final class LabelStyles {
+
+    static final Font VERTICAL = new Font(FontFamily.HELVETICA, 12, Font.ITALIC);
+    static final Font PRIORITY = new Font(FontFamily.HELVETICA, 12, Font.BOLD);
+    static final Font ITEM = new Font();
+    static final Font TEXT = new Font(FontFamily.HELVETICA, 10);
+    static final Font SMALL = new Font(FontFamily.HELVETICA, 8);
+    static final Font SMALL_BOLD = new Font(FontFamily.HELVETICA, 8, Font.BOLD);
+    static final Font SEQUENCE = new Font(FontFamily.HELVETICA, 15, Font.BOLD);
+
+    static final BaseColor BORDER = BaseColor.BLACK;
+
+    private LabelStyles() {
+    }
+}
@@ -0,0 +1,72 @@
+package com.project.util;
+
+import com.itextpdf.text.BadElementException;
+import com.itextpdf.text.Font;
+
+import com.project.dto.ShippingLabelDto;
+import com.project.exceptions.DispatchDocumentException;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Start-up helpers for short-lived processes, where class loading and first-use initialisation of
+ * iText and barcode4j cost more than rendering a small batch.
+ *
+ * <p>{@link #preload()} initialises the fonts and the barcode generator on a background thread, so
+ * that work overlaps with opening and parsing the manifest. {@link #train(int)} renders a synthetic
+ * batch through every render mode and ZPL; run it under {@code -XX:ArchiveClassesAtExit} to record
+ * an AppCDS archive holding every class a real run loads (see the {@code cds} profile in the pom).
+ */
+public final class LabelWarmup {
+
+    private static final Font[] FONTS = {
+        LabelStyles.VERTICAL, LabelStyles.PRIORITY, LabelStyles.ITEM, LabelStyles.TEXT,
+        LabelStyles.SMALL, LabelStyles.SMALL_BOLD, LabelStyles.SEQUENCE
+    };
+
+    private LabelWarmup() {
+    }
+
+    public static void preload() {
+        Thread thread = new Thread(LabelWarmup::initialise, "label-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Renders {@code labels} synthetic labels in every render mode and as ZPL. */
+    public static void train(int labels) throws DispatchDocumentException {
+        initialise();
+        List<ShippingLabelDto> dtos = new ArrayList<>(labels);
+        for (int i = 0; i < labels; i++) dtos.add(sample(i));
+        ShippingLabelPdfGenerator generator = new ShippingLabelPdfGenerator();
+        for (LabelRenderMode renderMode : LabelRenderMode.values()) {
+            generator.setRenderMode(renderMode);
+            generator.generateShippingLabel(dtos, OutputStream.nullOutputStream());
+        }
+        generator.generateZplLabel(dtos.iterator(), OutputStream.nullOutputStream());
+    }
+
+    private static void initialise() {
+        for (Font font : FONTS) font.getCalculatedBaseFont(false);
+        try {
+            ShippingLabelPdfGenerator.createCode128BarcodeImage("0");
+        } catch (BadElementException ex) {
+            // only a warm-up; the real render reports the failure
+        }
+    }
+
+    /** A label with every property set through its setter, so no field the layout reads is null. */
+    private static ShippingLabelDto sample(int index) {
+        return ShippingLabelDtoSetters.populate(setter -> {
+            Class<?> type = setter.getParameterTypes()[0];
+            if (type == String.class) return setter.getName().substring(3) + " " + index;
+            if (type == Long.class || type == long.class) return (long) index;
+            if (type == Integer.class || type == int.class) return index;
+            if (type == Boolean.class || type == boolean.class) return index % 2 == 0;
+            if (type.isEnum()) return type.getEnumConstants()[0];
+            return null;
+        });
+    }
+}
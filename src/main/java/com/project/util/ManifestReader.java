@@ -0,0 +1,331 @@
+package com.project.util;
+
+import com.project.dto.ShippingLabelDto;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads a label manifest one row at a time, so a manifest of any size is parsed in constant memory
+ * and can be handed straight to {@link ShippingLabelPdfGenerator#generateShippingLabel(Iterator,
+ * java.io.OutputStream)}. A {@code .csv} manifest names the DTO properties in its header row; any
+ * other file is read as JSON lines, one flat object per line. Properties are matched to the setters
+ * of {@link ShippingLabelDto} ignoring case, underscores and dashes, and unknown columns are
+ * skipped. A leading UTF-8 byte order mark is ignored. Flags must read {@code true} or {@code false}.
+ * A row that cannot be parsed fails with its line number.
+ *
+ * <p>{@link #position()} gives the byte offset and line number of the next row, and {@link #seek}
+ * returns to one, so a manifest can be split between readers after a single scan.
+ */
+public class ManifestReader implements Iterator<ShippingLabelDto>, Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).flip();
+    private byte[] lineBytes = new byte[256];
+    private final boolean csv;
+    private Method[] columns;
+    private long offset;
+    private long lineNumber;
+    private Position nextPosition;
+    private ShippingLabelDto next;
+
+    public ManifestReader(Path manifest) throws IOException {
+        this.channel = FileChannel.open(manifest, StandardOpenOption.READ);
+        this.csv = manifest.getFileName().toString().toLowerCase().endsWith(".csv");
+        if (this.csv) {
+            List<String> header = this.readCsvRecord();
+            if (header == null) header = List.of();
+            this.columns = new Method[header.size()];
+            for (int i = 0; i < header.size(); i++) this.columns[i] = ShippingLabelDtoSetters.forProperty(header.get(i));
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (this.next == null) {
+            this.nextPosition = new Position(this.offset, this.lineNumber);
+            try {
+                this.next = this.csv ? this.readCsv() : this.readJson();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+        return this.next != null;
+    }
+
+    @Override
+    public ShippingLabelDto next() {
+        if (!this.hasNext()) throw new NoSuchElementException();
+        ShippingLabelDto dto = this.next;
+        this.next = null;
+        return dto;
+    }
+
+    /** Where the next row starts; reading from there again gives the same rows. */
+    public Position position() {
+        return this.next == null ? new Position(this.offset, this.lineNumber) : this.nextPosition;
+    }
+
+    /** Continues reading at a position taken from a reader of the same manifest. */
+    public void seek(Position position) throws IOException {
+        this.channel.position(position.offset());
+        this.buffer.clear().flip();
+        this.offset = position.offset();
+        this.lineNumber = position.line();
+        this.next = null;
+    }
+
+    /**
+     * Skips up to {@code records} rows without mapping them to DTOs and returns how many were
+     * skipped, fewer only at the end of the manifest.
+     */
+    public long skip(long records) throws IOException {
+        long skipped = 0;
+        if (this.next != null) {
+            this.next = null;
+            skipped++;
+        }
+        while (skipped < records && this.skipRecord()) skipped++;
+        return skipped;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    private boolean skipRecord() throws IOException {
+        return (this.csv ? this.nextCsvRecord() : this.nextJsonLine()) != null;
+    }
+
+    private ShippingLabelDto readCsv() throws IOException {
+        List<String> record = this.nextCsvRecord();
+        if (record == null) return null;
+        ShippingLabelDto dto = new ShippingLabelDto();
+        for (int i = 0; i < record.size() && i < this.columns.length; i++) {
+            if (this.columns[i] != null) this.set(dto, this.columns[i], record.get(i));
+        }
+        return dto;
+    }
+
+    private List<String> nextCsvRecord() throws IOException {
+        List<String> record;
+        do {
+            record = this.readCsvRecord();
+            if (record == null) return null;
+        } while (record.size() == 1 && record.get(0).isEmpty());
+        return record;
+    }
+
+    /** One RFC 4180 record; a quoted field may contain commas, doubled quotes and line breaks. */
+    private List<String> readCsvRecord() throws IOException {
+        String line = this.readLine();
+        if (line == null) return null;
+        this.lineNumber++;
+        List<String> record = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; ; i++) {
+            if (i == line.length()) {
+                if (!quoted) break;
+                line = this.readLine();
+                if (line == null) throw this.malformed("unterminated quoted field");
+                this.lineNumber++;
+                field.append('\n');
+                i = -1;
+                continue;
+            }
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') field.append(c);
+                else if (i + 1 < line.length() && line.charAt(i + 1) == '"') field.append(line.charAt(++i));
+                else quoted = false;
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                record.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        record.add(field.toString());
+        return record;
+    }
+
+    /** A flat JSON object: string, number, boolean and null values only. */
+    private ShippingLabelDto readJson() throws IOException {
+        String line = this.nextJsonLine();
+        if (line == null) return null;
+        ShippingLabelDto dto = new ShippingLabelDto();
+        int[] position = {this.skipWhitespace(line, 0)};
+        this.expect(line, position, '{');
+        if (this.peek(line, position) == '}') return dto;
+        while (true) {
+            String name = this.jsonString(line, position);
+            this.expect(line, position, ':');
+            String value = this.peek(line, position) == '"'
+                    ? this.jsonString(line, position)
+                    : this.jsonLiteral(line, position);
+            Method setter = ShippingLabelDtoSetters.forProperty(name);
+            if (setter != null && value != null) this.set(dto, setter, value);
+            if (this.peek(line, position) == '}') return dto;
+            this.expect(line, position, ',');
+        }
+    }
+
+    private String nextJsonLine() throws IOException {
+        String line;
+        do {
+            line = this.readLine();
+            if (line == null) return null;
+            this.lineNumber++;
+        } while (line.isBlank());
+        return line;
+    }
+
+    /**
+     * The next line without its terminator, or null at the end of the manifest. Lines are cut at
+     * {@code \n} on the raw bytes, so {@link #offset} always points at the start of a line.
+     */
+    private String readLine() throws IOException {
+        long start = this.offset;
+        int length = 0;
+        while (true) {
+            if (!this.buffer.hasRemaining()) {
+                this.buffer.clear();
+                int read = this.channel.read(this.buffer);
+                this.buffer.flip();
+                if (read <= 0) {
+                    if (this.offset == start) return null;
+                    break;
+                }
+            }
+            byte b = this.buffer.get();
+            this.offset++;
+            if (b == '\n') break;
+            if (length == this.lineBytes.length) this.lineBytes = Arrays.copyOf(this.lineBytes, length * 2);
+            this.lineBytes[length++] = b;
+        }
+        if (length > 0 && this.lineBytes[length - 1] == '\r') length--;
+        String text = new String(this.lineBytes, 0, length, StandardCharsets.UTF_8);
+        // Excel and other Windows tools start UTF-8 exports with a byte order mark.
+        if (start == 0 && !text.isEmpty() && text.charAt(0) == BYTE_ORDER_MARK) text = text.substring(1);
+        return text;
+    }
+
+    private String jsonString(String line, int[] position) {
+        this.expect(line, position, '"');
+        StringBuilder value = new StringBuilder();
+        for (int i = position[0]; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                position[0] = i + 1;
+                return value.toString();
+            }
+            if (c != '\\') {
+                value.append(c);
+                continue;
+            }
+            if (++i == line.length()) break;
+            switch (line.charAt(i)) {
+                case 'n' -> value.append('\n');
+                case 't' -> value.append('\t');
+                case 'r' -> value.append('\r');
+                case 'b' -> value.append('\b');
+                case 'f' -> value.append('\f');
+                case 'u' -> {
+                    if (i + 4 >= line.length()) throw this.malformed("truncated unicode escape");
+                    value.append((char) Integer.parseInt(line.substring(i + 1, i + 5), 16));
+                    i += 4;
+                }
+                default -> value.append(line.charAt(i));
+            }
+        }
+        throw this.malformed("unterminated string");
+    }
+
+    private String jsonLiteral(String line, int[] position) {
+        int start = position[0];
+        int end = start;
+        while (end < line.length() && ",} \t".indexOf(line.charAt(end)) < 0) end++;
+        if (end == start) throw this.malformed("missing value at column " + (start + 1));
+        position[0] = end;
+        String literal = line.substring(start, end);
+        return literal.equals("null") ? null : literal;
+    }
+
+    private char peek(String line, int[] position) {
+        position[0] = this.skipWhitespace(line, position[0]);
+        if (position[0] == line.length()) throw this.malformed("unexpected end of line");
+        return line.charAt(position[0]);
+    }
+
+    private void expect(String line, int[] position, char expected) {
+        if (this.peek(line, position) != expected) {
+            throw this.malformed("expected '" + expected + "' at column " + (position[0] + 1));
+        }
+        position[0]++;
+    }
+
+    private int skipWhitespace(String line, int position) {
+        while (position < line.length() && Character.isWhitespace(line.charAt(position))) position++;
+        return position;
+    }
+
+    private void set(ShippingLabelDto dto, Method setter, String value) {
+        Class<?> type = setter.getParameterTypes()[0];
+        String property = setter.getName().substring(3);
+        Object converted;
+        try {
+            if (type == String.class) converted = value;
+            else if (value.isEmpty()) converted = null;
+            else if (type == Long.class || type == long.class) converted = Long.valueOf(value);
+            else if (type == Integer.class || type == int.class) converted = Integer.valueOf(value);
+            else if (type == Boolean.class || type == boolean.class) converted = parseBoolean(value.trim());
+            else if (type == Double.class || type == double.class) converted = Double.valueOf(value);
+            else if (type.isEnum()) converted = enumConstant(type, value.trim());
+            else throw new IllegalArgumentException("unsupported type " + type.getSimpleName());
+        } catch (IllegalArgumentException ex) {
+            throw this.malformed("bad value '" + value + "' for " + property + ": " + ex.getMessage());
+        }
+        if (converted == null && type.isPrimitive()) return;
+        ShippingLabelDtoSetters.set(dto, setter, converted);
+    }
+
+    private static Boolean parseBoolean(String value) {
+        if (value.equalsIgnoreCase("true")) return Boolean.TRUE;
+        if (value.equalsIgnoreCase("false")) return Boolean.FALSE;
+        throw new IllegalArgumentException("expected true or false");
+    }
+
+    private static Object enumConstant(Class<?> type, String value) {
+        for (Object constant : type.getEnumConstants()) {
+            if (((Enum<?>) constant).name().equalsIgnoreCase(value)) return constant;
+        }
+        throw new IllegalArgumentException("no " + type.getSimpleName() + " constant");
+    }
+
+    private IllegalArgumentException malformed(String message) {
+        return new IllegalArgumentException("Manifest line " + this.lineNumber + ": " + message);
+    }
+
+    /** Byte offset of a row in the manifest and the number of lines before it. */
+    public record Position(long offset, long line) {
+    }
+}
@@ -0,0 +1,140 @@
+package com.project.util;
+
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.RandomAccessFileOrArray;
+
+import com.project.dto.ShippingLabelDto;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Content-addressed store of rendered labels. Each entry is a one-page PDF holding a single label
+ * at its natural size, keyed by a hash of every printed DTO field, the render mode and
+ * {@link #LAYOUT_VERSION}. The generator imports an entry as a form XObject and stamps it into the
+ * label slot, so a reprint or a repeated shipment skips the barcode and layout work entirely.
+ *
+ * <p>Entries live in memory up to {@code maxBytes}, least recently used first out. With a spill
+ * directory, evicted entries are written there and read back through a memory-mapped file.
+ */
+public class RenderedLabelCache {
+
+    /** Bump whenever the label layout changes so stale renders are never stamped. */
+    public static final int LAYOUT_VERSION = 1;
+
+    private final long maxBytes;
+    private final Path spillDirectory;
+    private final Map<String, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder diskHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public RenderedLabelCache(long maxBytes) {
+        this(maxBytes, null);
+    }
+
+    public RenderedLabelCache(long maxBytes, Path spillDirectory) {
+        this.maxBytes = maxBytes;
+        this.spillDirectory = spillDirectory;
+    }
+
+    public static String key(ShippingLabelDto dto, LabelRenderMode renderMode) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+        Object[] fields = {
+            LAYOUT_VERSION, renderMode, dto.getVertical(), dto.getPriority(), dto.getTripId(), dto.getCarrier(),
+            dto.getSequence(), dto.getShipmentDisplayId(), dto.getShipmentType(), dto.getItemName(), dto.getAwb(),
+            dto.getUserDetails(), dto.getSellerName(), dto.getSellerAddress(), dto.getDispatchFcAddress(),
+            dto.getDispatchPincode(), dto.getReturnAddress(), dto.getReturnPincode(), dto.getPackageName()
+        };
+        for (Object field : fields) {
+            digest.update(String.valueOf(field).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /** Opens the cached label for {@code key}, or returns null if it has never been rendered. */
+    public PdfReader open(String key) throws IOException {
+        byte[] label;
+        synchronized (this.entries) {
+            label = this.entries.get(key);
+        }
+        if (label != null) {
+            this.hits.increment();
+            return new PdfReader(label);
+        }
+        if (this.spillDirectory != null) {
+            Path path = this.spillDirectory.resolve(key + ".pdf");
+            if (Files.exists(path)) {
+                this.diskHits.increment();
+                return new PdfReader(new RandomAccessFileOrArray(path.toString(), false, false), null);
+            }
+        }
+        this.misses.increment();
+        return null;
+    }
+
+    public void put(String key, byte[] label) throws IOException {
+        synchronized (this.entries) {
+            byte[] previous = this.entries.put(key, label);
+            this.bytes += label.length - (previous == null ? 0 : previous.length);
+            var eldest = this.entries.entrySet().iterator();
+            while (this.bytes > this.maxBytes && eldest.hasNext()) {
+                Map.Entry<String, byte[]> entry = eldest.next();
+                if (entry.getKey().equals(key)) continue;
+                this.spill(entry.getKey(), entry.getValue());
+                this.bytes -= entry.getValue().length;
+                eldest.remove();
+                this.evictions.increment();
+            }
+        }
+    }
+
+    private void spill(String key, byte[] label) throws IOException {
+        if (this.spillDirectory == null) return;
+        Path path = this.spillDirectory.resolve(key + ".pdf");
+        if (Files.exists(path)) return;
+        Path tmp = Files.createTempFile(this.spillDirectory, key, ".tmp");
+        Files.write(tmp, label);
+        Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public long getBytes() {
+        synchronized (this.entries) {
+            return this.bytes;
+        }
+    }
+
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    public long getDiskHits() {
+        return this.diskHits.sum();
+    }
+
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    public long getEvictions() {
+        return this.evictions.sum();
+    }
+}
@@ -0,0 +1,63 @@
+package com.project.util;
+
+import com.project.dto.ShippingLabelDto;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The setters of {@link ShippingLabelDto}, for code that fills labels by property name or type:
+ * the manifest reader, the warm-up run and the benchmark data. Setters are listed in name order,
+ * so callers that draw values from a seeded source always draw them in the same order.
+ */
+public final class ShippingLabelDtoSetters {
+
+    private static final List<Method> SETTERS = Arrays.stream(ShippingLabelDto.class.getMethods())
+            .filter(method -> method.getName().startsWith("set") && method.getParameterCount() == 1)
+            .sorted(Comparator.comparing(Method::getName))
+            .toList();
+    private static final Map<String, Method> BY_PROPERTY = new HashMap<>();
+
+    static {
+        for (Method setter : SETTERS) BY_PROPERTY.put(normalise(setter.getName().substring(3)), setter);
+    }
+
+    private ShippingLabelDtoSetters() {
+    }
+
+    public static List<Method> all() {
+        return SETTERS;
+    }
+
+    /** The setter for a property, matched ignoring case, underscores and dashes, or null. */
+    public static Method forProperty(String property) {
+        return BY_PROPERTY.get(normalise(property));
+    }
+
+    /** A new label with every setter called with the value {@code values} gives it; null skips it. */
+    public static ShippingLabelDto populate(Function<Method, Object> values) {
+        ShippingLabelDto dto = new ShippingLabelDto();
+        for (Method setter : SETTERS) {
+            Object value = values.apply(setter);
+            if (value != null) set(dto, setter, value);
+        }
+        return dto;
+    }
+
+    public static void set(ShippingLabelDto dto, Method setter, Object value) {
+        try {
+            setter.invoke(dto, value);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Cannot populate ShippingLabelDto: " + ex.getMessage(), ex);
+        }
+    }
+
+    static String normalise(String property) {
+        return property.replace("_", "").replace("-", "").trim().toLowerCase();
+    }
+}
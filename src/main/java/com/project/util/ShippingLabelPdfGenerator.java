@@ -1,30 +1,52 @@
 package com.project.util;
 
 import com.itextpdf.text.BadElementException;
-import com.itextpdf.text.BaseColor;
 import com.itextpdf.text.Document;
 import com.itextpdf.text.DocumentException;
 import com.itextpdf.text.Element;
 import com.itextpdf.text.Font;
-import com.itextpdf.text.Font.FontFamily;
 import com.itextpdf.text.Image;
+import com.itextpdf.text.ImgRaw;
 import com.itextpdf.text.PageSize;
 import com.itextpdf.text.Phrase;
 import com.itextpdf.text.Rectangle;
 import com.itextpdf.text.pdf.PdfContentByte;
+import com.itextpdf.text.pdf.PdfCopy;
+import com.itextpdf.text.pdf.PdfImportedPage;
 import com.itextpdf.text.pdf.PdfPCell;
 import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.PdfSmartCopy;
+import com.itextpdf.text.pdf.PdfStream;
 import com.itextpdf.text.pdf.PdfWriter;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import javax.imageio.ImageIO;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 import com.project.dto.ShippingLabelDto;
 import com.project.exceptions.DispatchDocumentException;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.krysalis.barcode4j.impl.code128.Code128Bean;
 import org.krysalis.barcode4j.output.bitmap.BitmapCanvasProvider;
@@ -33,120 +55,496 @@ import org.krysalis.barcode4j.tools.UnitConv;
 @Slf4j
 public class ShippingLabelPdfGenerator {
 
+    /** Natural width of a label; the layout scales it to the size of its slots. */
+    static final float LABEL_WIDTH = PageSize.A4.getWidth() / 2.0f - 30.0f;
+    static final double BARCODE_BAR_HEIGHT = 240;
+    static final int BARCODE_DPI = 2;
+
+    private static final int MAX_PENDING_PAGES = 64;
+    private static final int OPTIMISED_PAGES_PER_TASK = 16;
+    private static final int MAX_STAMPED_LABELS = 256;
+    private static final int SEGMENT_PAGES = 250;
+
+    @Getter
+    @Setter
+    private LabelMetrics metrics = new LabelMetrics();
+
+    @Getter
+    @Setter
+    private LabelLayout layout = LabelLayout.A4_4UP;
+
+    @Getter
+    @Setter
+    private LabelRenderMode renderMode = LabelRenderMode.TABLE;
+
+    /** Optional cache for reprint-heavy runs; without one every label renders its own barcode. */
+    @Setter
+    private BarcodeCache barcodeCache;
+
+    /**
+     * Optional store of rendered labels. With one set, every label is stamped from the cache and
+     * only labels it has never seen are laid out. Each distinct label carries its own copy of the
+     * frame and font resources, so it pays off for reprints and batches with repeated shipments.
+     */
+    @Setter
+    private RenderedLabelCache labelCache;
+
+    /**
+     * Packs objects and the cross-reference table into compressed streams (PDF 1.5), and has the
+     * parallel writer render several pages per task so that fonts and the label frame are shared
+     * by more pages. Output needs a PDF 1.5 reader, Acrobat 6 or later.
+     */
+    @Setter
+    private boolean optimiseOutput;
+
+    /** Deflate level for content and image streams, from 0 (stored) to 9 (smallest). */
+    @Setter
+    private int compressionLevel = PdfStream.DEFAULT_COMPRESSION;
+
     public File generateShippingLabel(List<ShippingLabelDto> dtos, File file) throws DispatchDocumentException {
-        int startCount = 0;
-        int endCount = 0;
-        File page = new File("label_" + startCount + ".pdf");
-        List<File> pages = new ArrayList<>();
-        List<ShippingLabelDto> dtoPages = new ArrayList<>();
+        try (OutputStream stream = new BufferedOutputStream(new FileOutputStream(file))) {
+            this.generateShippingLabel(dtos, stream);
+        } catch (IOException ex) {
+            log.error("Shipping label generation failed", ex);
+            if (file.exists()) file.delete();
+            throw new DispatchDocumentException(ex.getMessage());
+        } catch (DispatchDocumentException ex) {
+            if (file.exists()) file.delete();
+            throw ex;
+        }
+        return file;
+    }
+
+    /**
+     * Writes every label into a single document bound to the given stream, starting a new page
+     * whenever the slots of the layout are filled. Pages are handed to the stream as they are
+     * completed, so nothing is buffered on disk and memory does not grow with the size of the batch.
+     * The stream is not closed.
+     */
+    public void generateShippingLabel(List<ShippingLabelDto> dtos, OutputStream stream)
+            throws DispatchDocumentException {
+        this.generateShippingLabel(dtos.iterator(), stream);
+    }
+
+    public void generateShippingLabel(Stream<ShippingLabelDto> dtos, OutputStream stream)
+            throws DispatchDocumentException {
+        this.generateShippingLabel(dtos.iterator(), stream);
+    }
+
+    /**
+     * Pulls labels from the iterator only as fast as pages are written, so a DTO source such as a
+     * paged database cursor is never materialised. Each page is flushed to the stream as soon as
+     * its labels have arrived and peak heap stays at roughly one page of DTOs.
+     */
+    public void generateShippingLabel(Iterator<ShippingLabelDto> dtos, OutputStream stream)
+            throws DispatchDocumentException {
+        this.generateShippingLabel(dtos, stream, 0);
+    }
+
+    /**
+     * Same as {@link #generateShippingLabel(Iterator, OutputStream)} for a slice of a larger manifest
+     * whose first label has index {@code firstLabel} there. Labels land in the same slots as they
+     * would in a single run, so slices that start on a page boundary can be merged page for page.
+     */
+    public void generateShippingLabel(Iterator<ShippingLabelDto> dtos, OutputStream stream, int firstLabel)
+            throws DispatchDocumentException {
+        if (!dtos.hasNext()) throw new DispatchDocumentException("No shipping labels to generate");
         try {
-            FileOutputStream stream = new FileOutputStream(page);
-            for (ShippingLabelDto dto : dtos) {
-                if (endCount != 0 && endCount % 4 == 0) {
-                    this.createPage(dtoPages, stream, startCount);
-                    pages.add(page);
-                    stream.flush();
-                    stream.close();
-                    page = new File("label_" + endCount + ".pdf");
-                    stream = new FileOutputStream(page);
-                    dtoPages = new ArrayList<>();
-                    startCount = endCount;
-                }
-                dtoPages.add(dto);
-                endCount++;
+            this.writeLabels(dtos, new CountingOutputStream(stream, this.metrics), firstLabel);
+        } catch (IOException | DocumentException | RuntimeException ex) {
+            // a label with a missing field fails here as it does on the parallel path
+            this.metrics.failed();
+            log.error("Shipping label generation failed", ex);
+            throw new DispatchDocumentException(ex.getMessage());
+        }
+    }
+
+    /**
+     * Concatenates finished label documents into the stream in the given order without rendering
+     * anything again. Streams repeated across documents, such as the label frame, are written once.
+     * The stream is not closed.
+     */
+    public void mergeShippingLabels(List<Path> documents, OutputStream stream) throws DispatchDocumentException {
+        try {
+            this.merge(documents, new CountingOutputStream(stream, this.metrics));
+        } catch (IOException | DocumentException ex) {
+            this.metrics.failed();
+            log.error("Shipping label generation failed", ex);
+            throw new DispatchDocumentException(ex.getMessage());
+        }
+    }
+
+    /**
+     * Renders a large manifest in committed segments under {@code workDirectory} and assembles them
+     * into {@code file}. If a run dies part way, calling this again with the same manifest and work
+     * directory resumes after the last committed segment. Labels that fail to render are left out
+     * and their manifest indices are returned rather than failing the run.
+     */
+    public List<Integer> generateResumableShippingLabel(Iterator<ShippingLabelDto> dtos, File file, Path workDirectory)
+            throws DispatchDocumentException {
+        if (!dtos.hasNext()) throw new DispatchDocumentException("No shipping labels to generate");
+        try {
+            List<Integer> failed =
+                    new CheckpointedLabelWriter(this, workDirectory, SEGMENT_PAGES).write(dtos, file.toPath());
+            return failed;
+        } catch (IOException | DocumentException ex) {
+            this.metrics.failed();
+            log.error("Shipping label generation failed", ex);
+            throw new DispatchDocumentException(ex.getMessage());
+        }
+    }
+
+    /**
+     * Writes the labels as ZPL for thermal printers instead of a PDF, one format per label, so they
+     * reach the printer as a few hundred bytes of text with no rasterising on the print server.
+     */
+    public void generateZplLabel(Iterator<ShippingLabelDto> dtos, OutputStream stream)
+            throws DispatchDocumentException {
+        if (!dtos.hasNext()) throw new DispatchDocumentException("No shipping labels to generate");
+        ZplLabelWriter writer = new ZplLabelWriter(new CountingOutputStream(stream, this.metrics));
+        try {
+            while (dtos.hasNext()) {
+                writer.write(dtos.next());
+                this.metrics.labelWritten();
             }
-            this.createPage(dtoPages, stream, startCount);
-            pages.add(page);
-            FileOutputStream outputStream = new FileOutputStream(file);
-            outputStream.flush();
-            outputStream.close();
-            System.out.println("Shipping label is generated");
+        } catch (IOException | RuntimeException ex) {
+            this.metrics.failed();
+            log.error("Shipping label generation failed", ex);
+            throw new DispatchDocumentException(ex.getMessage());
+        }
+    }
+
+    /**
+     * Renders the labels one page at a time on the given executor and merges the pages into the
+     * stream in input order. At most {@link #MAX_PENDING_PAGES} rendered tasks are held while waiting
+     * to be merged, so memory stays bounded when rendering runs ahead of the merge. Neither the
+     * executor nor the stream is closed.
+     */
+    public void generateShippingLabel(List<ShippingLabelDto> dtos, OutputStream stream, ExecutorService executor)
+            throws DispatchDocumentException {
+        if (dtos.isEmpty()) throw new DispatchDocumentException("No shipping labels to generate");
+        Document document = new Document(this.layout.getPageSize());
+        Deque<Future<byte[]>> pending = new ArrayDeque<>();
+        try {
+            PdfSmartCopy copy = new PdfSmartCopy(document, new CountingOutputStream(stream, this.metrics));
+            copy.setCloseStream(false);
+            this.configure(copy);
+            document.open();
+            int labelsPerTask = this.layout.getLabelsPerPage() * (this.optimiseOutput ? OPTIMISED_PAGES_PER_TASK : 1);
+            for (int startCount = 0; startCount < dtos.size(); startCount += labelsPerTask) {
+                List<ShippingLabelDto> dtoPage =
+                        dtos.subList(startCount, Math.min(startCount + labelsPerTask, dtos.size()));
+                int pageStart = startCount;
+                pending.add(executor.submit(() -> this.renderPage(dtoPage, pageStart)));
+                if (pending.size() >= MAX_PENDING_PAGES) this.mergePage(copy, pending.poll());
+            }
+            while (!pending.isEmpty()) this.mergePage(copy, pending.poll());
+            document.close();
         } catch (IOException | DocumentException ex) {
-            System.out.println("Something went wrong in shipping label generator....\n" + ex.getMessage());
-            if (file.exists()) file.delete();
+            this.metrics.failed();
+            log.error("Shipping label generation failed", ex);
             throw new DispatchDocumentException(ex.getMessage());
+        } catch (ExecutionException ex) {
+            this.metrics.failed();
+            log.error("Shipping label generation failed", ex.getCause());
+            throw new DispatchDocumentException(ex.getCause().getMessage());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new DispatchDocumentException("Shipping label generation was interrupted");
         } finally {
-            for (File tmp : pages) tmp.delete();
+            for (Future<byte[]> page : pending) page.cancel(true);
         }
-        return file;
     }
 
-    private void createPage(List<ShippingLabelDto> dtos, FileOutputStream stream, int startCount)
-            throws IOException, DocumentException {
-        Document document = new Document(PageSize.A4);
+    /**
+     * Splits the labels by {@code groupKey} in one pass and writes each group as its own document to
+     * the stream {@code streams} returns for that key, so a wave no longer has to be rendered whole
+     * and split by re-parsing the PDF. Groups are rendered concurrently on the executor and the labels
+     * of a group are ordered by {@link ShippingLabelDto#getSequence()}. Every group is attempted even
+     * if another fails. Neither the executor nor the streams are closed.
+     */
+    public <K> void generateShippingLabel(
+            List<ShippingLabelDto> dtos,
+            Function<ShippingLabelDto, K> groupKey,
+            Function<K, OutputStream> streams,
+            ExecutorService executor)
+            throws DispatchDocumentException {
+        if (dtos.isEmpty()) throw new DispatchDocumentException("No shipping labels to generate");
+        Map<K, List<ShippingLabelDto>> groups = new LinkedHashMap<>();
+        for (ShippingLabelDto dto : dtos) {
+            groups.computeIfAbsent(groupKey.apply(dto), key -> new ArrayList<>()).add(dto);
+        }
+
+        Map<K, Future<?>> pending = new LinkedHashMap<>();
+        for (Map.Entry<K, List<ShippingLabelDto>> group : groups.entrySet()) {
+            List<ShippingLabelDto> labels = group.getValue();
+            labels.sort(Comparator.comparing(
+                    ShippingLabelDto::getSequence, Comparator.nullsLast(Comparator.naturalOrder())));
+            OutputStream stream = new CountingOutputStream(streams.apply(group.getKey()), this.metrics);
+            pending.put(group.getKey(), executor.submit(() -> {
+                this.writeLabels(labels.iterator(), stream, 0);
+                return null;
+            }));
+        }
+
+        List<String> failed = new ArrayList<>();
+        try {
+            for (Map.Entry<K, Future<?>> group : pending.entrySet()) {
+                try {
+                    group.getValue().get();
+                } catch (ExecutionException ex) {
+                    this.metrics.failed();
+                    failed.add(group.getKey() + ": " + ex.getCause().getMessage());
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            for (Future<?> group : pending.values()) group.cancel(true);
+            throw new DispatchDocumentException("Shipping label generation was interrupted");
+        }
+        if (!failed.isEmpty()) {
+            log.error("Shipping label generation failed for {}", String.join("; ", failed));
+            throw new DispatchDocumentException(String.join("; ", failed));
+        }
+    }
 
+    void writeLabels(Iterator<ShippingLabelDto> dtos, OutputStream stream, int startCount)
+            throws IOException, DocumentException {
+        Document document = new Document(this.layout.getPageSize());
         PdfWriter writer = PdfWriter.getInstance(document, stream);
+        writer.setCloseStream(false);
+        this.configure(writer);
         document.open();
         PdfContentByte cb = writer.getDirectContent();
+        ShippingLabelTemplate template =
+                this.renderMode == LabelRenderMode.TABLE ? null : new ShippingLabelTemplate(cb);
+        Map<String, PdfImportedPage> stamped = this.labelCache == null ? null : new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PdfImportedPage> eldest) {
+                return size() > MAX_STAMPED_LABELS;
+            }
+        };
+
+        int endCount = startCount;
+        int labelsPerPage = this.layout.getLabelsPerPage();
+        List<ShippingLabelDto> dtoPage = new ArrayList<>(labelsPerPage);
+        while (dtos.hasNext()) {
+            dtoPage.add(dtos.next());
+            endCount++;
+            // Finish the page before asking the iterator for more, so it never waits on the next fetch.
+            if (endCount % labelsPerPage == 0) {
+                this.createPage(dtoPage, cb, startCount, template, stamped);
+                long started = System.nanoTime();
+                document.newPage();
+                writer.flush();
+                this.metrics.record(LabelMetrics.Stage.PAGE_FLUSH, started);
+                dtoPage.clear();
+                startCount = endCount;
+            }
+        }
+        // A page left empty by the last newPage() is dropped when the document closes.
+        if (!dtoPage.isEmpty()) this.createPage(dtoPage, cb, startCount, template, stamped);
+        long started = System.nanoTime();
+        document.close();
+        this.metrics.record(LabelMetrics.Stage.PAGE_FLUSH, started);
+    }
 
+    void merge(List<Path> documents, OutputStream stream) throws IOException, DocumentException {
+        Document document = new Document(this.layout.getPageSize());
+        PdfSmartCopy copy = new PdfSmartCopy(document, stream);
+        copy.setCloseStream(false);
+        this.configure(copy);
+        document.open();
+        for (Path path : documents) {
+            long started = System.nanoTime();
+            PdfReader reader = new PdfReader(path.toString());
+            for (int i = 1; i <= reader.getNumberOfPages(); i++) copy.addPage(copy.getImportedPage(reader, i));
+            copy.freeReader(reader);
+            reader.close();
+            this.metrics.record(LabelMetrics.Stage.MERGE, started);
+        }
+        document.close();
+    }
+
+    void configure(PdfWriter writer) {
+        writer.setCompressionLevel(this.compressionLevel);
+        if (this.optimiseOutput) writer.setFullCompression();
+    }
+
+    private byte[] renderPage(List<ShippingLabelDto> dtos, int startCount) throws IOException, DocumentException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        this.writeLabels(dtos.iterator(), stream, startCount);
+        return stream.toByteArray();
+    }
+
+    private void mergePage(PdfCopy copy, Future<byte[]> page)
+            throws IOException, DocumentException, ExecutionException, InterruptedException {
+        byte[] bytes = page.get();
+        long started = System.nanoTime();
+        PdfReader reader = new PdfReader(bytes);
+        for (int i = 1; i <= reader.getNumberOfPages(); i++) copy.addPage(copy.getImportedPage(reader, i));
+        copy.freeReader(reader);
+        reader.close();
+        this.metrics.record(LabelMetrics.Stage.MERGE, started);
+    }
+
+    private void createPage(
+            List<ShippingLabelDto> dtos,
+            PdfContentByte cb,
+            int startCount,
+            ShippingLabelTemplate template,
+            Map<String, PdfImportedPage> stamped)
+            throws IOException, DocumentException {
+        List<PdfReader> imported = new ArrayList<>();
         for (ShippingLabelDto dto : dtos) {
-            Integer labelId = startCount + 1;
-
-            PdfPTable table = new PdfPTable(3);
-            table.setTotalWidth((PageSize.A4.getWidth() / 2.0f) - 30.0f);
-            table.setLockedWidth(true);
-
-            // first row
-            table.addCell(createPlaceholder(dto.getVertical().toString()));
-            table.addCell(createPriority(dto.getPriority()));
-            table.addCell(createTrip(dto));
-            table.addCell(createSequence(cb, dto));
-            table.addCell(createPackage(dto));
-            table.addCell(createShippingAddress(dto));
-            table.addCell(createVendorAddress(dto));
-            table.addCell(createFooter(dto));
-
-            float labelPageWidth = PageSize.A4.getWidth() / 2.0f;
-            float labelWidth = table.getTotalWidth();
-            float middleX = (labelPageWidth - labelWidth) / 2.0f;
-
-            float labelPageHeight = PageSize.A4.getHeight() / 2.0f;
-            float labelHeight = table.getTotalHeight();
-            float middleY = (labelPageHeight - labelHeight) / 2.0f;
-
-            switch (startCount % 4) {
-                case 0:
-                    table.writeSelectedRows(0, -1, middleX, PageSize.A4.getHeight() - middleY, cb);
-                    break;
-                case 1:
-                    table.writeSelectedRows(
-                            0,
-                            -1,
-                            (PageSize.A4.getWidth() / 2.0f + middleX),
-                            PageSize.A4.getHeight() - middleY,
-                            cb);
-                    break;
-                case 2:
-                    table.writeSelectedRows(0, -1, middleX, table.getTotalHeight() + 30.0f, cb);
-                    break;
-
-                case 3:
-                    table.writeSelectedRows(
-                            0, -1, (PageSize.A4.getWidth() / 2.0f + middleX), table.getTotalHeight() + 30.0f, cb);
-                    break;
-            }
+            if (stamped == null) this.drawLabel(dto, cb, startCount, template);
+            else this.stampLabel(dto, cb, startCount, stamped, imported);
+            this.metrics.labelWritten();
             startCount++;
         }
+        for (PdfReader reader : imported) {
+            cb.getPdfWriter().freeReader(reader);
+            reader.close();
+        }
+        this.metrics.pageWritten();
+    }
+
+    private void drawLabel(ShippingLabelDto dto, PdfContentByte cb, int count, ShippingLabelTemplate template)
+            throws DocumentException {
+        long started = System.nanoTime();
+        Image barcode = this.createBarcode(dto.getAwb());
+        started = this.metrics.record(LabelMetrics.Stage.BARCODE, started);
+
+        PdfPTable table = null;
+        float labelWidth = LABEL_WIDTH;
+        float labelHeight = ShippingLabelTemplate.HEIGHT;
+        if (template == null) {
+            table = createLabel(cb, dto, barcode);
+            labelHeight = table.getTotalHeight();
+        } else if (this.renderMode == LabelRenderMode.TEMPLATE) {
+            table = template.createFields(dto, barcode);
+        }
+        started = this.metrics.record(LabelMetrics.Stage.TABLE_BUILD, started);
+
+        int slot = count % this.layout.getLabelsPerPage();
+        float scale = this.layout.scaleToFit(labelWidth, labelHeight);
+        float x = this.layout.getSlotX(slot) + (this.layout.getLabelWidth() - labelWidth * scale) / 2.0f;
+        float top = this.layout.getSlotTop(slot);
+
+        cb.saveState();
+        cb.concatCTM(scale, 0, 0, scale, x, top);
+        writeLabel(cb, dto, barcode, table, template);
+        cb.restoreState();
+        this.metrics.record(LabelMetrics.Stage.TABLE_WRITE, started);
+    }
+
+    /**
+     * Stamps the label from the rendered-label cache, rendering it into the cache first on a miss.
+     * A label stamped earlier in the same document is referenced again instead of being imported
+     * twice. Readers imported for this page are collected so the page can free them once it is done.
+     */
+    private void stampLabel(
+            ShippingLabelDto dto,
+            PdfContentByte cb,
+            int count,
+            Map<String, PdfImportedPage> stamped,
+            List<PdfReader> imported)
+            throws IOException, DocumentException {
+        long started = System.nanoTime();
+        String key = RenderedLabelCache.key(dto, this.renderMode);
+        PdfImportedPage label = stamped.get(key);
+        if (label == null) {
+            PdfReader reader = this.labelCache.open(key);
+            if (reader == null) {
+                byte[] bytes = this.renderLabel(dto);
+                this.labelCache.put(key, bytes);
+                reader = new PdfReader(bytes);
+            }
+            label = cb.getPdfWriter().getImportedPage(reader, 1);
+            stamped.put(key, label);
+            imported.add(reader);
+        }
+        started = this.metrics.record(LabelMetrics.Stage.TABLE_BUILD, started);
+
+        int slot = count % this.layout.getLabelsPerPage();
+        float scale = this.layout.scaleToFit(label.getWidth(), label.getHeight());
+        float x = this.layout.getSlotX(slot) + (this.layout.getLabelWidth() - label.getWidth() * scale) / 2.0f;
+        float top = this.layout.getSlotTop(slot);
+        cb.addTemplate(label, scale, 0, 0, scale, x, top - label.getHeight() * scale);
+        this.metrics.record(LabelMetrics.Stage.TABLE_WRITE, started);
+    }
+
+    /** Renders a single label into a one-page PDF cut to the natural size of the label. */
+    byte[] renderLabel(ShippingLabelDto dto) throws DocumentException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        Document document = new Document();
+        PdfWriter writer = PdfWriter.getInstance(document, stream);
+        writer.setCompressionLevel(this.compressionLevel);
+        document.open();
+        PdfContentByte cb = writer.getDirectContent();
+        Image barcode = this.createBarcode(dto.getAwb());
+
+        PdfPTable table = null;
+        ShippingLabelTemplate template = null;
+        float labelHeight = ShippingLabelTemplate.HEIGHT;
+        if (this.renderMode == LabelRenderMode.TABLE) {
+            table = createLabel(cb, dto, barcode);
+            labelHeight = table.getTotalHeight();
+        } else {
+            template = new ShippingLabelTemplate(cb);
+            if (this.renderMode == LabelRenderMode.TEMPLATE) table = template.createFields(dto, barcode);
+        }
+        // Nothing has been drawn yet, so the new size applies to the first page.
+        document.setPageSize(new Rectangle(LABEL_WIDTH, labelHeight));
+        document.newPage();
+
+        cb.saveState();
+        cb.concatCTM(1, 0, 0, 1, 0, labelHeight);
+        writeLabel(cb, dto, barcode, table, template);
+        cb.restoreState();
         document.close();
+        return stream.toByteArray();
+    }
+
+    /** Draws one label in its natural size with its top-left corner at the origin. */
+    private static void writeLabel(
+            PdfContentByte cb, ShippingLabelDto dto, Image barcode, PdfPTable table, ShippingLabelTemplate template)
+            throws DocumentException {
+        if (template == null) table.writeSelectedRows(0, -1, 0, 0, cb);
+        else if (table != null) template.drawLabel(cb, table, 0, 0);
+        else template.drawLabel(cb, dto, barcode, 0, 0);
+    }
+
+    private Image createBarcode(String awb) throws BadElementException {
+        if (this.barcodeCache != null) return this.barcodeCache.get(awb);
+        return createCode128BarcodeImage(awb);
+    }
+
+    private static PdfPTable createLabel(PdfContentByte cb, ShippingLabelDto dto, Image barcode) {
+        TableLabelRenderer renderer = new TableLabelRenderer(cb, barcode);
+        LabelRenderer.render(dto, renderer);
+        return renderer.table;
     }
 
     private static PdfPCell createPlaceholder(String vertical) {
-        Font font = new Font(FontFamily.HELVETICA, 12, Font.ITALIC);
-        PdfPCell cell = new PdfPCell(new Phrase(vertical, font));
+        PdfPCell cell = new PdfPCell(new Phrase(vertical, LabelStyles.VERTICAL));
         cell.setFixedHeight(20);
         cell.setVerticalAlignment(Element.ALIGN_MIDDLE);
-        cell.setBorderColor(BaseColor.BLACK);
+        cell.setBorderColor(LabelStyles.BORDER);
         cell.setColspan(2);
         return cell;
     }
 
     public static BufferedImage generateCode128BarcodeImage(String barcodeText) {
+        return generateCode128BarcodeImage(barcodeText, BARCODE_BAR_HEIGHT, BARCODE_DPI);
+    }
+
+    public static BufferedImage generateCode128BarcodeImage(String barcodeText, double barHeight, int dpi) {
 
         Code128Bean barcodeGenerator = new Code128Bean();
-        barcodeGenerator.setBarHeight(240);
+        barcodeGenerator.setBarHeight(barHeight);
         // barcodeGenerator.setVerticalQuietZone(5);
 
-        int dpi = 2;
         barcodeGenerator.doQuietZone(true);
 
         barcodeGenerator.setModuleWidth(UnitConv.in2mm(1.0f / dpi));
@@ -160,19 +558,18 @@ public class ShippingLabelPdfGenerator {
     }
 
     private static PdfPCell createPriority(Boolean priority) {
-        Font font = new Font(FontFamily.HELVETICA, 12, Font.BOLD);
         PdfPCell cell;
-        if (priority) cell = new PdfPCell(new Phrase("PRIORITY", font));
-        else cell = new PdfPCell(new Phrase("STANDARD", font));
+        if (priority) cell = new PdfPCell(new Phrase("PRIORITY", LabelStyles.PRIORITY));
+        else cell = new PdfPCell(new Phrase("STANDARD", LabelStyles.PRIORITY));
         cell.setFixedHeight(20);
         cell.setVerticalAlignment(Element.ALIGN_MIDDLE);
         cell.setHorizontalAlignment(Element.ALIGN_CENTER);
-        cell.setBorderColor(BaseColor.BLACK);
+        cell.setBorderColor(LabelStyles.BORDER);
         return cell;
     }
 
     private static PdfPCell createTrip(ShippingLabelDto dto) {
-        Font font = new Font(FontFamily.HELVETICA, 8);
+        Font font = LabelStyles.SMALL;
         float[] widthPercentage = {30.0f, 70.0f};
         PdfPTable cellTable = new PdfPTable(widthPercentage);
 
@@ -201,74 +598,78 @@ public class ShippingLabelPdfGenerator {
         innerCell.setHorizontalAlignment(Element.ALIGN_CENTER);
         cell.setVerticalAlignment(Element.ALIGN_MIDDLE);
         cell.setFixedHeight(40);
-        cell.setBorderColor(BaseColor.BLACK);
+        cell.setBorderColor(LabelStyles.BORDER);
         cell.setColspan(2);
         return cell;
     }
 
-    private static PdfPCell createAwb(PdfContentByte cb, ShippingLabelDto dto) throws DispatchDocumentException {
-        File outputFile = new File("./saved.png");
-        try {
-            Font font = new Font(FontFamily.HELVETICA, 10);
-            float[] widthPercentage = {20.0f, 40.0f, 40.0f};
-            PdfPTable cellTable = new PdfPTable(widthPercentage);
-
-            PdfPCell innerCell = new PdfPCell(new Phrase("AWB: ", font));
-            innerCell.setBorder(Rectangle.NO_BORDER);
-            innerCell.setVerticalAlignment(Element.ALIGN_TOP);
-            innerCell.setHorizontalAlignment(Element.ALIGN_LEFT);
-            cellTable.addCell(innerCell);
-
-            String awb = dto.getAwb();
-            innerCell = new PdfPCell(new Phrase(awb, font));
-            innerCell.setColspan(2);
-            innerCell.setBorder(Rectangle.NO_BORDER);
-            innerCell.setVerticalAlignment(Element.ALIGN_MIDDLE);
-            innerCell.setHorizontalAlignment(Element.ALIGN_LEFT);
-            cellTable.addCell(innerCell);
-
-            BufferedImage image = generateCode128BarcodeImage(awb);
-            ImageIO.write(image, "png", outputFile);
-
-            Image img = Image.getInstance(outputFile.getPath());
-
-            innerCell = new PdfPCell(img);
-            innerCell.setBorder(Rectangle.NO_BORDER);
-            innerCell.setColspan(3);
-            innerCell.setVerticalAlignment(Element.ALIGN_MIDDLE);
-            innerCell.setHorizontalAlignment(Element.ALIGN_CENTER);
-            cellTable.addCell(innerCell);
-            PdfPCell cell = new PdfPCell(cellTable);
-            cell.setPadding(0);
-            cell.setColspan(3);
-            innerCell.setHorizontalAlignment(Element.ALIGN_CENTER);
-            cell.setVerticalAlignment(Element.ALIGN_MIDDLE);
-            cell.setFixedHeight(50);
-            cell.setBorderColor(BaseColor.BLACK);
-            return cell;
-        } catch (IOException | BadElementException e) {
-            System.out.println(e.getMessage());
-            throw new DispatchDocumentException(e.getMessage());
-        } finally {
-            if (outputFile.exists()) outputFile.delete();
-        }
+    /**
+     * Wraps the 1-bit barcode raster in an in-memory image. {@code TYPE_BYTE_BINARY} rows are packed
+     * MSB first and byte aligned with 0 as black, which is exactly a 1 bpc DeviceGray image, so the
+     * bytes are embedded as they are without any PNG encoding or disk round trip.
+     *
+     * <p>The raster is deliberately kept raw so the writer deflates it. {@link Image#getInstance(int,
+     * int, int, int, byte[])} would encode a 1-bit image as CCITT G4 instead, which takes about 240
+     * bytes for a barcode that deflates to about 35.
+     */
+    public static Image createCode128BarcodeImage(String barcodeText) throws BadElementException {
+        return createCode128BarcodeImage(barcodeText, BARCODE_BAR_HEIGHT, BARCODE_DPI);
+    }
+
+    public static Image createCode128BarcodeImage(String barcodeText, double barHeight, int dpi)
+            throws BadElementException {
+        BufferedImage bi = generateCode128BarcodeImage(barcodeText, barHeight, dpi);
+        byte[] data = ((DataBufferByte) bi.getRaster().getDataBuffer()).getData();
+        return new ImgRaw(bi.getWidth(), bi.getHeight(), 1, 1, data);
+    }
+
+    private static PdfPCell createAwb(ShippingLabelDto dto, Image barcode) {
+        Font font = LabelStyles.TEXT;
+        float[] widthPercentage = {20.0f, 40.0f, 40.0f};
+        PdfPTable cellTable = new PdfPTable(widthPercentage);
+
+        PdfPCell innerCell = new PdfPCell(new Phrase("AWB: ", font));
+        innerCell.setBorder(Rectangle.NO_BORDER);
+        innerCell.setVerticalAlignment(Element.ALIGN_TOP);
+        innerCell.setHorizontalAlignment(Element.ALIGN_LEFT);
+        cellTable.addCell(innerCell);
+
+        String awb = dto.getAwb();
+        innerCell = new PdfPCell(new Phrase(awb, font));
+        innerCell.setColspan(2);
+        innerCell.setBorder(Rectangle.NO_BORDER);
+        innerCell.setVerticalAlignment(Element.ALIGN_MIDDLE);
+        innerCell.setHorizontalAlignment(Element.ALIGN_LEFT);
+        cellTable.addCell(innerCell);
+
+        innerCell = new PdfPCell(barcode);
+        innerCell.setBorder(Rectangle.NO_BORDER);
+        innerCell.setColspan(3);
+        innerCell.setVerticalAlignment(Element.ALIGN_MIDDLE);
+        innerCell.setHorizontalAlignment(Element.ALIGN_CENTER);
+        cellTable.addCell(innerCell);
+        PdfPCell cell = new PdfPCell(cellTable);
+        cell.setPadding(0);
+        cell.setColspan(3);
+        cell.setVerticalAlignment(Element.ALIGN_MIDDLE);
+        cell.setFixedHeight(50);
+        cell.setBorderColor(LabelStyles.BORDER);
+        return cell;
     }
 
     private static PdfPCell createSequence(PdfContentByte cb, ShippingLabelDto dto) {
 
-        Font font = new Font(FontFamily.HELVETICA, 10);
         PdfPTable cellTable = new PdfPTable(2);
         PdfPCell seqCell = new PdfPCell();
         seqCell.setBorder(Rectangle.NO_BORDER);
         seqCell.setRowspan(2);
-        Phrase p1 = new Phrase("       Seq:       ", font);
+        Phrase p1 = new Phrase("       Seq:       ", LabelStyles.TEXT);
         seqCell.addElement(p1);
         seqCell.setVerticalAlignment(Element.ALIGN_TOP);
         seqCell.setHorizontalAlignment(Element.ALIGN_MIDDLE);
         cellTable.addCell(seqCell);
 
-        Font seqfont = new Font(FontFamily.HELVETICA, 15, Font.BOLD);
-        PdfPCell innerCell = new PdfPCell(new Phrase(dto.getSequence().toString(), seqfont));
+        PdfPCell innerCell = new PdfPCell(new Phrase(dto.getSequence().toString(), LabelStyles.SEQUENCE));
         innerCell.setBorder(Rectangle.NO_BORDER);
         innerCell.setVerticalAlignment(Element.ALIGN_MIDDLE);
         innerCell.setHorizontalAlignment(Element.ALIGN_CENTER);
@@ -281,7 +682,6 @@ public class ShippingLabelPdfGenerator {
         cell.setCellEvent(
                 (cell1, position, canvases) -> {
                     PdfContentByte cb1 = canvases[PdfPTable.LINECANVAS];
-                    System.out.println("Chala");
                     double xLeft = position.getLeft();
                     double yLeft = position.getBottom();
                     double xRight = position.getRight();
@@ -295,13 +695,13 @@ public class ShippingLabelPdfGenerator {
                     cb1.stroke();
                 });
         cell.setFixedHeight(40);
-        cell.setBorderColor(BaseColor.BLACK);
+        cell.setBorderColor(LabelStyles.BORDER);
         return cell;
     }
 
     private static PdfPCell createPackage(ShippingLabelDto dto) {
 
-        Font font = new Font(FontFamily.HELVETICA, 8);
+        Font font = LabelStyles.SMALL;
         float[] widthPercentage = {70.0f, 30.0f};
         PdfPTable cellTable = new PdfPTable(widthPercentage);
 
@@ -311,16 +711,15 @@ public class ShippingLabelPdfGenerator {
         shipmentCell.setBorder(Rectangle.NO_BORDER);
         cellTable.addCell(shipmentCell);
 
-        font = new Font(FontFamily.HELVETICA, 8, Font.BOLD);
-        PdfPCell typeCell = new PdfPCell(new Phrase(dto.getShipmentType().toString(), font));
+        PdfPCell typeCell = new PdfPCell(new Phrase(dto.getShipmentType().toString(), LabelStyles.SMALL_BOLD));
         typeCell.setHorizontalAlignment(Element.ALIGN_RIGHT);
         typeCell.setBorder(Rectangle.NO_BORDER);
         cellTable.addCell(typeCell);
 
-        PdfPCell cell = new PdfPCell(new Phrase(dto.getItemName()));
+        PdfPCell cell = new PdfPCell(new Phrase(dto.getItemName(), LabelStyles.ITEM));
         cell.setVerticalAlignment(Element.ALIGN_MIDDLE);
         cell.setHorizontalAlignment(Element.ALIGN_LEFT);
-        cell.setBorderColor(BaseColor.BLACK);
+        cell.setBorderColor(LabelStyles.BORDER);
         cell.setColspan(2);
         cell.setNoWrap(false);
         cell.setBorder(Rectangle.NO_BORDER);
@@ -333,7 +732,7 @@ public class ShippingLabelPdfGenerator {
 
     private static PdfPCell createShippingAddress(ShippingLabelDto dto) {
 
-        Font font = new Font(FontFamily.HELVETICA, 8);
+        Font font = LabelStyles.SMALL;
 
         PdfPTable cellTable = new PdfPTable(1);
 
@@ -385,7 +784,7 @@ public class ShippingLabelPdfGenerator {
 
     private static PdfPCell createVendorAddress(ShippingLabelDto dto) {
 
-        Font font = new Font(FontFamily.HELVETICA, 8);
+        Font font = LabelStyles.SMALL;
 
         PdfPTable sellerAddressTable = new PdfPTable(1);
 
@@ -464,14 +863,96 @@ public class ShippingLabelPdfGenerator {
 
     public static PdfPCell createFooter(ShippingLabelDto dto) {
 
-        Font font = new Font(FontFamily.HELVETICA, 8);
+        Font font = LabelStyles.SMALL;
         PdfPCell cell =
                 new PdfPCell(new Phrase("For Warehouse use only: \nSKU: " + dto.getPackageName(), font));
         cell.setVerticalAlignment(Element.ALIGN_MIDDLE);
         cell.setHorizontalAlignment(Element.ALIGN_LEFT);
         cell.setFixedHeight(20);
-        cell.setBorderColor(BaseColor.BLACK);
+        cell.setBorderColor(LabelStyles.BORDER);
         cell.setColspan(3);
         return cell;
     }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        private final LabelMetrics metrics;
+
+        CountingOutputStream(OutputStream stream, LabelMetrics metrics) {
+            super(stream);
+            this.metrics = metrics;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            this.out.write(b);
+            this.metrics.bytesWritten(1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            this.out.write(b, off, len);
+            this.metrics.bytesWritten(len);
+        }
+    }
+
+    /** Builds the bordered label table, one cell per section. */
+    private static class TableLabelRenderer implements LabelRenderer {
+
+        private final PdfContentByte cb;
+        private final Image barcode;
+        private final PdfPTable table = new PdfPTable(3);
+
+        TableLabelRenderer(PdfContentByte cb, Image barcode) {
+            this.cb = cb;
+            this.barcode = barcode;
+            this.table.setTotalWidth(LABEL_WIDTH);
+            this.table.setLockedWidth(true);
+        }
+
+        @Override
+        public void vertical(ShippingLabelDto dto) {
+            this.table.addCell(createPlaceholder(dto.getVertical().toString()));
+        }
+
+        @Override
+        public void priority(ShippingLabelDto dto) {
+            this.table.addCell(createPriority(dto.getPriority()));
+        }
+
+        @Override
+        public void trip(ShippingLabelDto dto) {
+            this.table.addCell(createTrip(dto));
+        }
+
+        @Override
+        public void sequence(ShippingLabelDto dto) {
+            this.table.addCell(createSequence(this.cb, dto));
+        }
+
+        @Override
+        public void shipment(ShippingLabelDto dto) {
+            this.table.addCell(createPackage(dto));
+        }
+
+        @Override
+        public void awb(ShippingLabelDto dto) {
+            this.table.addCell(createAwb(dto, this.barcode));
+        }
+
+        @Override
+        public void shippingAddress(ShippingLabelDto dto) {
+            this.table.addCell(createShippingAddress(dto));
+        }
+
+        @Override
+        public void vendorAddress(ShippingLabelDto dto) {
+            this.table.addCell(createVendorAddress(dto));
+        }
+
+        @Override
+        public void footer(ShippingLabelDto dto) {
+            this.table.addCell(createFooter(dto));
+        }
+    }
 }
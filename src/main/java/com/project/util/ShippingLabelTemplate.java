@@ -0,0 +1,316 @@
+package com.project.util;
+
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Element;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.Image;
+import com.itextpdf.text.Phrase;
+import com.itextpdf.text.Rectangle;
+import com.itextpdf.text.pdf.BaseFont;
+import com.itextpdf.text.pdf.ColumnText;
+import com.itextpdf.text.pdf.PdfContentByte;
+import com.itextpdf.text.pdf.PdfPCell;
+import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfTemplate;
+
+import com.project.dto.ShippingLabelDto;
+
+/**
+ * Fixed-geometry shipping label for {@link LabelRenderMode#TEMPLATE} and {@link LabelRenderMode#DIRECT}. The frame (rules, captions and
+ * the sequence circle) is laid out once per document into a form XObject. Each label stamps the
+ * frame and writes a borderless table holding only the DTO fields. Both tables share the same row
+ * heights so values line up with their captions; a field that does not fit its row is clipped.
+ */
+class ShippingLabelTemplate {
+
+    static final float WIDTH = ShippingLabelPdfGenerator.LABEL_WIDTH;
+
+    private static final float HEADER = 20;
+    private static final float TRIP = 40;
+    private static final float SHIPMENT = 16;
+    private static final float ITEM = 24;
+    private static final float AWB = 20;
+    private static final float BARCODE = 28;
+    private static final float ADDRESS = 50;
+    private static final float CONTACT = 16;
+    private static final float SELLER = 40;
+    private static final float SHIPPED_BY = 40;
+    private static final float DISPATCH_PIN = 16;
+    private static final float RETURN = 40;
+    private static final float RETURN_PIN = 16;
+    private static final float FOOTER = 28;
+
+    static final float HEIGHT = HEADER + TRIP + SHIPMENT + ITEM + AWB + BARCODE + ADDRESS + CONTACT
+            + SELLER + SHIPPED_BY + DISPATCH_PIN + RETURN + RETURN_PIN + FOOTER;
+
+    /** Offsets from the top of the label of the full-width rules between the label sections. */
+    private static final float[] RULES = {
+        HEADER,
+        HEADER + TRIP,
+        HEADER + TRIP + SHIPMENT + ITEM,
+        HEADER + TRIP + SHIPMENT + ITEM + AWB + BARCODE,
+        HEADER + TRIP + SHIPMENT + ITEM + AWB + BARCODE + ADDRESS + CONTACT,
+        HEIGHT - FOOTER
+    };
+
+    // offsets of the row tops from the top of the label, used by the direct renderer
+    private static final float TRIP_TOP = HEADER;
+    private static final float SHIPMENT_TOP = TRIP_TOP + TRIP;
+    private static final float ITEM_TOP = SHIPMENT_TOP + SHIPMENT;
+    private static final float AWB_TOP = ITEM_TOP + ITEM;
+    private static final float BARCODE_TOP = AWB_TOP + AWB;
+    private static final float ADDRESS_TOP = BARCODE_TOP + BARCODE;
+    private static final float CONTACT_TOP = ADDRESS_TOP + ADDRESS;
+    private static final float SELLER_TOP = CONTACT_TOP + CONTACT;
+    private static final float SHIPPED_BY_TOP = SELLER_TOP + SELLER;
+    private static final float DISPATCH_PIN_TOP = SHIPPED_BY_TOP + SHIPPED_BY;
+    private static final float RETURN_TOP = DISPATCH_PIN_TOP + DISPATCH_PIN;
+    private static final float RETURN_PIN_TOP = RETURN_TOP + RETURN;
+    private static final float FOOTER_TOP = RETURN_PIN_TOP + RETURN_PIN;
+
+    private static final float PADDING = 2.0f;
+    private static final float CAPTION_LINE = 12.0f;
+
+    private final PdfTemplate frame;
+    private final float shipmentCaptionWidth;
+    private final float contactCaptionWidth;
+
+    ShippingLabelTemplate(PdfContentByte cb) {
+        Font font = LabelStyles.SMALL;
+        this.shipmentCaptionWidth = font.getCalculatedBaseFont(false).getWidthPoint("Shipment ID: ", 8);
+        this.contactCaptionWidth = font.getCalculatedBaseFont(false).getWidthPoint("Contact: ", 8);
+        this.frame = cb.createTemplate(WIDTH, HEIGHT);
+        this.drawFrame();
+    }
+
+    void drawLabel(PdfContentByte cb, PdfPTable fields, float x, float top) throws DocumentException {
+        cb.addTemplate(this.frame, x, top - HEIGHT);
+        fields.writeSelectedRows(0, -1, x, top, cb);
+    }
+
+    /**
+     * {@link LabelRenderMode#DIRECT}: draws the fields straight onto the canvas at the positions the
+     * field table would give them. Short identifiers are shown as single text runs; free text goes
+     * through a simple {@link ColumnText} so it wraps and clips within its row like a table cell.
+     */
+    void drawLabel(PdfContentByte cb, ShippingLabelDto dto, Image barcode, float x, float top)
+            throws DocumentException {
+        cb.addTemplate(this.frame, x, top - HEIGHT);
+        float column = WIDTH / 6.0f;
+
+        showText(cb, LabelStyles.VERTICAL, dto.getVertical().toString(), Element.ALIGN_LEFT,
+                x + PADDING, x + 4 * column - PADDING, top - middle(0, HEADER, LabelStyles.VERTICAL));
+        showText(cb, LabelStyles.PRIORITY, dto.getPriority() ? "PRIORITY" : "STANDARD", Element.ALIGN_CENTER,
+                x + 4 * column + PADDING, x + WIDTH - PADDING, top - middle(0, HEADER, LabelStyles.PRIORITY));
+
+        float tripX = x + WIDTH * 4 / 6.0f * 0.3f;
+        showText(cb, LabelStyles.SMALL, dto.getTripId().toString(), Element.ALIGN_LEFT,
+                tripX, x + 4 * column - PADDING, top - baseline(TRIP_TOP, PADDING, LabelStyles.SMALL));
+        showText(cb, LabelStyles.SMALL, dto.getCarrier(), Element.ALIGN_LEFT,
+                tripX, x + 4 * column - PADDING, top - baseline(TRIP_TOP, PADDING, LabelStyles.SMALL) - 8);
+        showText(cb, LabelStyles.SEQUENCE, dto.getSequence().toString(), Element.ALIGN_CENTER,
+                x + 5 * column, x + WIDTH - PADDING, top - middle(TRIP_TOP, TRIP, LabelStyles.SEQUENCE));
+
+        showText(cb, LabelStyles.SMALL, dto.getShipmentDisplayId(), Element.ALIGN_LEFT,
+                x + PADDING + this.shipmentCaptionWidth, x + 4 * column - PADDING,
+                top - baseline(SHIPMENT_TOP, PADDING, LabelStyles.SMALL));
+        showText(cb, LabelStyles.SMALL_BOLD, dto.getShipmentType().toString(), Element.ALIGN_RIGHT,
+                x + 4 * column + PADDING, x + WIDTH - PADDING, top - baseline(SHIPMENT_TOP, PADDING, LabelStyles.SMALL_BOLD));
+        showColumn(cb, new Phrase(dto.getItemName(), LabelStyles.ITEM), Element.ALIGN_LEFT,
+                x + PADDING, x + WIDTH - PADDING, top - ITEM_TOP - PADDING, top - AWB_TOP + PADDING, Font.DEFAULTSIZE);
+
+        showText(cb, LabelStyles.TEXT, dto.getAwb(), Element.ALIGN_LEFT,
+                x + WIDTH * 0.2f, x + WIDTH - PADDING, top - baseline(AWB_TOP, PADDING, LabelStyles.TEXT));
+        float imageWidth = barcode.getScaledWidth();
+        float imageHeight = barcode.getScaledHeight();
+        cb.addImage(barcode, imageWidth, 0, 0, imageHeight, x + (WIDTH - imageWidth) / 2.0f,
+                top - BARCODE_TOP - (BARCODE - imageHeight) / 2.0f - imageHeight);
+
+        showColumn(cb, new Phrase(dto.getUserDetails(), LabelStyles.SMALL), Element.ALIGN_LEFT,
+                x + PADDING, x + WIDTH - PADDING, top - ADDRESS_TOP - PADDING - CAPTION_LINE, top - CONTACT_TOP + PADDING, 8);
+        showColumn(cb, new Phrase(dto.getUserDetails(), LabelStyles.SMALL), Element.ALIGN_LEFT,
+                x + PADDING + this.contactCaptionWidth, x + 3 * column - PADDING,
+                top - CONTACT_TOP - PADDING, top - SELLER_TOP + PADDING, 8);
+        showColumn(cb, new Phrase("PIN:" + dto.getUserDetails(), LabelStyles.SMALL), Element.ALIGN_RIGHT,
+                x + 3 * column + PADDING, x + WIDTH - PADDING, top - CONTACT_TOP - PADDING, top - SELLER_TOP + PADDING, 8);
+
+        showColumn(cb, new Phrase(dto.getSellerName() + " " + dto.getSellerAddress(), LabelStyles.SMALL), Element.ALIGN_LEFT,
+                x + PADDING, x + WIDTH - PADDING, top - SELLER_TOP - PADDING - CAPTION_LINE, top - SHIPPED_BY_TOP + PADDING, 8);
+        showColumn(cb, new Phrase(dto.getDispatchFcAddress(), LabelStyles.SMALL), Element.ALIGN_LEFT,
+                x + PADDING, x + WIDTH - PADDING, top - SHIPPED_BY_TOP - PADDING - CAPTION_LINE, top - DISPATCH_PIN_TOP + PADDING, 8);
+        showText(cb, LabelStyles.SMALL, "PIN: " + dto.getDispatchPincode(), Element.ALIGN_RIGHT,
+                x + PADDING, x + WIDTH - PADDING, top - baseline(DISPATCH_PIN_TOP, PADDING, LabelStyles.SMALL));
+        showColumn(cb, new Phrase(dto.getReturnAddress(), LabelStyles.SMALL), Element.ALIGN_LEFT,
+                x + PADDING, x + WIDTH - PADDING, top - RETURN_TOP - PADDING - CAPTION_LINE, top - RETURN_PIN_TOP + PADDING, 8);
+        showText(cb, LabelStyles.SMALL, "PIN: " + dto.getReturnPincode(), Element.ALIGN_RIGHT,
+                x + PADDING, x + WIDTH - PADDING, top - baseline(RETURN_PIN_TOP, PADDING, LabelStyles.SMALL));
+
+        showColumn(cb, new Phrase("SKU: " + dto.getPackageName(), LabelStyles.SMALL), Element.ALIGN_LEFT,
+                x + PADDING, x + WIDTH - PADDING, top - FOOTER_TOP - PADDING - CAPTION_LINE, top - HEIGHT + PADDING, 8);
+    }
+
+    /** Distance from the label top to the first baseline of a top-aligned cell. */
+    private static float baseline(float rowTop, float paddingTop, Font font) {
+        return rowTop + paddingTop + font.getSize();
+    }
+
+    /** Distance from the label top to the baseline of a single line centred in its row. */
+    private static float middle(float rowTop, float rowHeight, Font font) {
+        return rowTop + PADDING + (rowHeight - 2 * PADDING - font.getSize()) / 2.0f + font.getSize();
+    }
+
+    /** Shows one line of text; null shows nothing, as it does in a {@link Phrase}. */
+    private static void showText(
+            PdfContentByte cb, Font font, String text, int alignment, float left, float right, float y) {
+        if (text == null || text.isEmpty()) return;
+        BaseFont baseFont = font.getCalculatedBaseFont(false);
+        float x = left;
+        if (alignment != Element.ALIGN_LEFT) {
+            float width = baseFont.getWidthPoint(text, font.getSize());
+            x = alignment == Element.ALIGN_RIGHT ? right - width : left + (right - left - width) / 2.0f;
+        }
+        cb.beginText();
+        cb.setFontAndSize(baseFont, font.getSize());
+        cb.setTextMatrix(x, y);
+        cb.showText(text);
+        cb.endText();
+    }
+
+    private static void showColumn(
+            PdfContentByte cb, Phrase phrase, int alignment, float left, float right, float top, float bottom, float leading)
+            throws DocumentException {
+        ColumnText column = new ColumnText(cb);
+        column.setSimpleColumn(phrase, left, bottom, right, top, leading, alignment);
+        column.go();
+    }
+
+    private void drawFrame() {
+        this.frame.setColorStroke(LabelStyles.BORDER);
+        this.frame.rectangle(0, 0, WIDTH, HEIGHT);
+        for (float rule : RULES) {
+            this.frame.moveTo(0, HEIGHT - rule);
+            this.frame.lineTo(WIDTH, HEIGHT - rule);
+        }
+        this.frame.moveTo(WIDTH * 4 / 6.0f, HEIGHT);
+        this.frame.lineTo(WIDTH * 4 / 6.0f, HEIGHT - HEADER - TRIP);
+        this.frame.stroke();
+
+        Font font = LabelStyles.SMALL;
+        PdfPTable captions = createTable();
+        captions.addCell(cell(new Phrase("", LabelStyles.SMALL), 6, HEADER));
+        captions.addCell(cell(new Phrase("Trip ID: \nCarrier: ", font), 4, TRIP));
+        PdfPCell seqCell = cell(new Phrase("Seq:", LabelStyles.TEXT), 2, TRIP);
+        seqCell.setCellEvent(
+                (cell1, position, canvases) -> {
+                    PdfContentByte cb1 = canvases[PdfPTable.LINECANVAS];
+                    float xCor = position.getLeft() + (position.getWidth() * 2) / 3.0f + 10.0f;
+                    float yCor = position.getBottom() + position.getHeight() / 2.0f - 3.0f;
+                    cb1.circle(xCor, yCor, 15.0f);
+                    cb1.stroke();
+                });
+        captions.addCell(seqCell);
+        captions.addCell(cell(new Phrase("Shipment ID: ", font), 6, SHIPMENT));
+        captions.addCell(cell(new Phrase("", LabelStyles.SMALL), 6, ITEM));
+        captions.addCell(cell(new Phrase("AWB: ", LabelStyles.TEXT), 6, AWB));
+        captions.addCell(cell(new Phrase("", LabelStyles.SMALL), 6, BARCODE));
+        captions.addCell(cell(new Phrase("Shipping Address: ", font), 6, ADDRESS));
+        captions.addCell(cell(new Phrase("Contact: ", font), 6, CONTACT));
+        captions.addCell(cell(new Phrase("Seller Name And Address: ", font), 6, SELLER));
+        captions.addCell(cell(new Phrase("Shipped By", font), 6, SHIPPED_BY));
+        captions.addCell(cell(new Phrase("", LabelStyles.SMALL), 6, DISPATCH_PIN));
+        captions.addCell(cell(new Phrase("Return Address", font), 6, RETURN));
+        captions.addCell(cell(new Phrase("", LabelStyles.SMALL), 6, RETURN_PIN));
+        captions.addCell(cell(new Phrase("For Warehouse use only: ", font), 6, FOOTER));
+        captions.writeSelectedRows(0, -1, 0, HEIGHT, this.frame);
+    }
+
+    PdfPTable createFields(ShippingLabelDto dto, Image barcode) {
+        Font font = LabelStyles.SMALL;
+        PdfPTable fields = createTable();
+
+        PdfPCell cell = cell(new Phrase(dto.getVertical().toString(), LabelStyles.VERTICAL), 4, HEADER);
+        cell.setVerticalAlignment(Element.ALIGN_MIDDLE);
+        fields.addCell(cell);
+        cell = cell(new Phrase(dto.getPriority() ? "PRIORITY" : "STANDARD", LabelStyles.PRIORITY), 2, HEADER);
+        cell.setVerticalAlignment(Element.ALIGN_MIDDLE);
+        cell.setHorizontalAlignment(Element.ALIGN_CENTER);
+        fields.addCell(cell);
+
+        String carrier = dto.getCarrier() == null ? "" : dto.getCarrier();
+        cell = cell(new Phrase(dto.getTripId().toString() + "\n" + carrier, font), 4, TRIP);
+        cell.setPaddingLeft(WIDTH * 4 / 6.0f * 0.3f);
+        fields.addCell(cell);
+        cell = cell(new Phrase(dto.getSequence().toString(), LabelStyles.SEQUENCE), 2, TRIP);
+        cell.setPaddingLeft(WIDTH / 6.0f);
+        cell.setVerticalAlignment(Element.ALIGN_MIDDLE);
+        cell.setHorizontalAlignment(Element.ALIGN_CENTER);
+        fields.addCell(cell);
+
+        cell = cell(new Phrase(dto.getShipmentDisplayId(), font), 4, SHIPMENT);
+        cell.setPaddingLeft(PADDING + this.shipmentCaptionWidth);
+        fields.addCell(cell);
+        cell = cell(new Phrase(dto.getShipmentType().toString(), LabelStyles.SMALL_BOLD), 2, SHIPMENT);
+        cell.setHorizontalAlignment(Element.ALIGN_RIGHT);
+        fields.addCell(cell);
+        fields.addCell(cell(new Phrase(dto.getItemName(), LabelStyles.ITEM), 6, ITEM));
+
+        cell = cell(new Phrase(dto.getAwb(), LabelStyles.TEXT), 6, AWB);
+        cell.setPaddingLeft(WIDTH * 0.2f);
+        fields.addCell(cell);
+        cell = new PdfPCell(barcode);
+        cell.setBorder(Rectangle.NO_BORDER);
+        cell.setColspan(6);
+        cell.setFixedHeight(BARCODE);
+        cell.setVerticalAlignment(Element.ALIGN_MIDDLE);
+        cell.setHorizontalAlignment(Element.ALIGN_CENTER);
+        fields.addCell(cell);
+
+        cell = cell(new Phrase(dto.getUserDetails(), font), 6, ADDRESS);
+        cell.setPaddingTop(PADDING + CAPTION_LINE);
+        fields.addCell(cell);
+        cell = cell(new Phrase(dto.getUserDetails(), font), 3, CONTACT);
+        cell.setPaddingLeft(PADDING + this.contactCaptionWidth);
+        fields.addCell(cell);
+        cell = cell(new Phrase("PIN:" + dto.getUserDetails(), font), 3, CONTACT);
+        cell.setHorizontalAlignment(Element.ALIGN_RIGHT);
+        fields.addCell(cell);
+
+        cell = cell(new Phrase(dto.getSellerName() + " " + dto.getSellerAddress(), font), 6, SELLER);
+        cell.setPaddingTop(PADDING + CAPTION_LINE);
+        fields.addCell(cell);
+        cell = cell(new Phrase(dto.getDispatchFcAddress(), font), 6, SHIPPED_BY);
+        cell.setPaddingTop(PADDING + CAPTION_LINE);
+        fields.addCell(cell);
+        cell = cell(new Phrase("PIN: " + dto.getDispatchPincode(), font), 6, DISPATCH_PIN);
+        cell.setHorizontalAlignment(Element.ALIGN_RIGHT);
+        fields.addCell(cell);
+        cell = cell(new Phrase(dto.getReturnAddress(), font), 6, RETURN);
+        cell.setPaddingTop(PADDING + CAPTION_LINE);
+        fields.addCell(cell);
+        cell = cell(new Phrase("PIN: " + dto.getReturnPincode(), font), 6, RETURN_PIN);
+        cell.setHorizontalAlignment(Element.ALIGN_RIGHT);
+        fields.addCell(cell);
+
+        cell = cell(new Phrase("SKU: " + dto.getPackageName(), font), 6, FOOTER);
+        cell.setPaddingTop(PADDING + CAPTION_LINE);
+        fields.addCell(cell);
+        return fields;
+    }
+
+    private static PdfPTable createTable() {
+        PdfPTable table = new PdfPTable(6);
+        table.setTotalWidth(WIDTH);
+        table.setLockedWidth(true);
+        return table;
+    }
+
+    private static PdfPCell cell(Phrase phrase, int colspan, float height) {
+        PdfPCell cell = new PdfPCell(phrase);
+        cell.setBorder(Rectangle.NO_BORDER);
+        cell.setColspan(colspan);
+        cell.setFixedHeight(height);
+        cell.setVerticalAlignment(Element.ALIGN_TOP);
+        cell.setHorizontalAlignment(Element.ALIGN_LEFT);
+        return cell;
+    }
+}
@@ -0,0 +1,151 @@
+package com.project.util;
+
+import com.project.dto.ShippingLabelDto;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes labels as ZPL II for Zebra thermal printers: one {@code ^XA ... ^XZ} format per label,
+ * laid out for a 4x6 inch label at 203 dpi. The AWB is sent as a native {@code ^BC} Code128 so the
+ * printer draws the bars itself. Each label is flushed to the stream as soon as it is complete;
+ * the stream is never closed.
+ */
+public class ZplLabelWriter {
+
+    private static final int WIDTH = 812;
+    private static final int HEIGHT = 1218;
+    private static final int MARGIN = 20;
+    private static final int CAPTION = 24;
+    private static final int VALUE = 28;
+
+    private final OutputStream stream;
+    private final ZplLabelRenderer renderer = new ZplLabelRenderer();
+
+    public ZplLabelWriter(OutputStream stream) {
+        this.stream = stream;
+    }
+
+    public void write(ShippingLabelDto dto) throws IOException {
+        this.stream.write(this.renderer.format(dto).getBytes(StandardCharsets.UTF_8));
+        this.stream.flush();
+    }
+
+    /** Missing text prints as nothing, as it does on the PDF label. */
+    private static String orEmpty(Object value) {
+        return value == null ? "" : value.toString();
+    }
+
+    /** Builds the ZPL format of one label, one section per callback. */
+    private static class ZplLabelRenderer implements LabelRenderer {
+
+        private final StringBuilder format = new StringBuilder(2048);
+
+        String format(ShippingLabelDto dto) {
+            this.format.setLength(0);
+            this.format.append("^XA^CI28^PW").append(WIDTH).append("^LL").append(HEIGHT);
+            this.box(0, 0, WIDTH, HEIGHT, 4);
+            LabelRenderer.render(dto, this);
+            this.format.append("^XZ\n");
+            return this.format.toString();
+        }
+
+        @Override
+        public void vertical(ShippingLabelDto dto) {
+            this.text(MARGIN, 20, 36, WIDTH - 300, 1, 'L', dto.getVertical().toString());
+        }
+
+        @Override
+        public void priority(ShippingLabelDto dto) {
+            this.text(WIDTH - 280, 20, 36, 260, 1, 'R', dto.getPriority() ? "PRIORITY" : "STANDARD");
+            this.box(0, 70, WIDTH, 3, 3);
+        }
+
+        @Override
+        public void trip(ShippingLabelDto dto) {
+            this.text(MARGIN, 85, VALUE, 500, 1, 'L', "Trip ID: " + orEmpty(dto.getTripId()));
+            this.text(MARGIN, 125, VALUE, 500, 1, 'L', "Carrier: " + orEmpty(dto.getCarrier()));
+        }
+
+        @Override
+        public void sequence(ShippingLabelDto dto) {
+            this.text(540, 110, CAPTION, 90, 1, 'L', "Seq:");
+            this.format.append("^FO640,78^GC90,3^FS");
+            this.text(640, 102, 44, 90, 1, 'C', dto.getSequence().toString());
+            this.box(0, 175, WIDTH, 3, 3);
+        }
+
+        @Override
+        public void shipment(ShippingLabelDto dto) {
+            this.text(MARGIN, 190, VALUE, 540, 1, 'L', "Shipment ID: " + orEmpty(dto.getShipmentDisplayId()));
+            this.text(560, 190, VALUE, WIDTH - 560 - MARGIN, 1, 'R', dto.getShipmentType().toString());
+            this.text(MARGIN, 225, VALUE, WIDTH - 2 * MARGIN, 2, 'L', dto.getItemName());
+            this.box(0, 290, WIDTH, 3, 3);
+        }
+
+        @Override
+        public void awb(ShippingLabelDto dto) {
+            this.text(MARGIN, 305, VALUE, WIDTH - 2 * MARGIN, 1, 'L', "AWB: " + orEmpty(dto.getAwb()));
+            this.format.append("^FO60,345^BY3^BCN,140,N,N,N");
+            this.field(dto.getAwb());
+            this.box(0, 510, WIDTH, 3, 3);
+        }
+
+        @Override
+        public void shippingAddress(ShippingLabelDto dto) {
+            this.text(MARGIN, 525, CAPTION, WIDTH - 2 * MARGIN, 1, 'L', "Shipping Address:");
+            this.text(MARGIN, 560, VALUE, WIDTH - 2 * MARGIN, 3, 'L', dto.getUserDetails());
+            this.text(MARGIN, 660, CAPTION, 480, 1, 'L', "Contact: " + orEmpty(dto.getUserDetails()));
+            this.text(520, 660, CAPTION, WIDTH - 520 - MARGIN, 1, 'R', "PIN:" + orEmpty(dto.getUserDetails()));
+            this.box(0, 700, WIDTH, 3, 3);
+        }
+
+        @Override
+        public void vendorAddress(ShippingLabelDto dto) {
+            this.text(MARGIN, 715, CAPTION, WIDTH - 2 * MARGIN, 1, 'L', "Seller Name And Address:");
+            this.text(MARGIN, 745, CAPTION, WIDTH - 2 * MARGIN, 2, 'L',
+                    orEmpty(dto.getSellerName()) + " " + orEmpty(dto.getSellerAddress()));
+            this.text(MARGIN, 815, CAPTION, WIDTH - 2 * MARGIN, 1, 'L', "Shipped By");
+            this.text(MARGIN, 845, CAPTION, WIDTH - 2 * MARGIN, 2, 'L', dto.getDispatchFcAddress());
+            this.text(MARGIN, 905, CAPTION, WIDTH - 2 * MARGIN, 1, 'R', "PIN: " + orEmpty(dto.getDispatchPincode()));
+            this.text(MARGIN, 940, CAPTION, WIDTH - 2 * MARGIN, 1, 'L', "Return Address");
+            this.text(MARGIN, 970, CAPTION, WIDTH - 2 * MARGIN, 2, 'L', dto.getReturnAddress());
+            this.text(MARGIN, 1030, CAPTION, WIDTH - 2 * MARGIN, 1, 'R', "PIN: " + orEmpty(dto.getReturnPincode()));
+            this.box(0, 1070, WIDTH, 3, 3);
+        }
+
+        @Override
+        public void footer(ShippingLabelDto dto) {
+            this.text(MARGIN, 1085, CAPTION, WIDTH - 2 * MARGIN, 1, 'L', "For Warehouse use only:");
+            this.text(MARGIN, 1120, VALUE, WIDTH - 2 * MARGIN, 1, 'L', "SKU: " + orEmpty(dto.getPackageName()));
+        }
+
+        /** A scalable-font field wrapped in a field block of the given width and maximum line count. */
+        private void text(int x, int y, int height, int width, int lines, char alignment, String text) {
+            this.format.append("^FO").append(x).append(',').append(y)
+                    .append("^A0N,").append(height).append(',').append(height)
+                    .append("^FB").append(width).append(',').append(lines).append(",0,").append(alignment).append(",0");
+            this.field(text);
+        }
+
+        private void box(int x, int y, int width, int height, int thickness) {
+            this.format.append("^FO").append(x).append(',').append(y)
+                    .append("^GB").append(width).append(',').append(height).append(',').append(thickness).append("^FS");
+        }
+
+        /** Field data with the ZPL control characters hex-escaped through {@code ^FH}. */
+        private void field(String text) {
+            if (text == null) text = "";
+            this.format.append("^FH\\^FD");
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '^') this.format.append("\\5E");
+                else if (c == '~') this.format.append("\\7E");
+                else if (c == '\\') this.format.append("\\5C");
+                else this.format.append(c);
+            }
+            this.format.append("^FS");
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.project.util;
+
+import com.itextpdf.text.pdf.PdfReader;
+import com.project.dto.ShippingLabelDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Runs that die part way and are resumed must still produce every page of the manifest. */
+class CheckpointedLabelWriterTest {
+
+    private static final int LABELS = 30;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void resumeAfterACrashWritesEveryPage() throws Exception {
+        Path work = this.directory.resolve("work");
+        Path output = this.directory.resolve("labels.pdf");
+
+        crash(work, output, 13);
+        assertTrue(Files.exists(work.resolve("segment_000002.pdf")));
+        assertFalse(Files.exists(output));
+
+        assertTrue(this.writer(work).write(labels(LABELS).iterator(), output).isEmpty());
+        assertEquals(pages(LABELS), pageCount(output));
+        assertFalse(Files.exists(work));
+    }
+
+    @Test
+    void missingCommittedSegmentIsRenderedAgain() throws Exception {
+        Path work = this.directory.resolve("work");
+        Path output = this.directory.resolve("labels.pdf");
+
+        crash(work, output, 13);
+        Files.delete(work.resolve("segment_000000.pdf"));
+
+        assertTrue(this.writer(work).write(labels(LABELS).iterator(), output).isEmpty());
+        assertEquals(pages(LABELS), pageCount(output));
+    }
+
+    private void crash(Path work, Path output, int after) {
+        Iterator<ShippingLabelDto> labels = labels(LABELS).iterator();
+        Iterator<ShippingLabelDto> dying = new Iterator<>() {
+            private int read;
+
+            @Override
+            public boolean hasNext() {
+                return labels.hasNext();
+            }
+
+            @Override
+            public ShippingLabelDto next() {
+                if (this.read++ == after) throw new IllegalStateException("crash");
+                return labels.next();
+            }
+        };
+        assertThrows(IllegalStateException.class, () -> this.writer(work).write(dying, output));
+    }
+
+    /** One page per segment, so a crash part way leaves several segments committed. */
+    private CheckpointedLabelWriter writer(Path work) {
+        return new CheckpointedLabelWriter(new ShippingLabelPdfGenerator(), work, 1);
+    }
+
+    private static int pages(int labels) {
+        int labelsPerPage = LabelLayout.A4_4UP.getLabelsPerPage();
+        return (labels + labelsPerPage - 1) / labelsPerPage;
+    }
+
+    private static int pageCount(Path pdf) throws Exception {
+        PdfReader reader = new PdfReader(pdf.toString());
+        try {
+            return reader.getNumberOfPages();
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static List<ShippingLabelDto> labels(int count) {
+        List<ShippingLabelDto> labels = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            labels.add(ShippingLabelDtoSetters.populate(setter -> {
+                Class<?> type = setter.getParameterTypes()[0];
+                if (type == String.class) return setter.getName().substring(3) + " " + index;
+                if (type == Long.class || type == long.class) return 1000L + index;
+                if (type == Integer.class || type == int.class) return index;
+                if (type == Boolean.class || type == boolean.class) return index % 2 == 0;
+                if (type.isEnum()) return type.getEnumConstants()[0];
+                return null;
+            }));
+        }
+        return labels;
+    }
+}
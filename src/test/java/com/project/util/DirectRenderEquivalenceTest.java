@@ -0,0 +1,132 @@
+package com.project.util;
+
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.parser.ImageRenderInfo;
+import com.itextpdf.text.pdf.parser.Matrix;
+import com.itextpdf.text.pdf.parser.PdfReaderContentParser;
+import com.itextpdf.text.pdf.parser.RenderListener;
+import com.itextpdf.text.pdf.parser.TextRenderInfo;
+import com.itextpdf.text.pdf.parser.Vector;
+import com.project.dto.ShippingLabelDto;
+import com.project.exceptions.DispatchDocumentException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * {@link LabelRenderMode#DIRECT} must put every text run and image where {@link LabelRenderMode#TEMPLATE}
+ * does. Both outputs are run through text extraction and compared to a tenth of a point.
+ */
+class DirectRenderEquivalenceTest {
+
+    private static final String LONG_TEXT = "Flat 42 Some Very Long Residential Address Line With Many Words "
+            + "Near Landmark Road Industrial Area Phase II City State 560001";
+
+    @Test
+    void directMatchesTemplateForWrappingFields() throws Exception {
+        List<ShippingLabelDto> dtos = new ArrayList<>();
+        for (int i = 0; i < 8; i++) dtos.add(sample(i));
+
+        List<String> template = extract(render(LabelRenderMode.TEMPLATE, dtos));
+        List<String> direct = extract(render(LabelRenderMode.DIRECT, dtos));
+
+        assertFalse(template.isEmpty());
+        assertEquals(template, direct);
+    }
+
+    @Test
+    void directMatchesTemplateForMissingText() throws Exception {
+        List<ShippingLabelDto> dtos = List.of(withoutCarrierAndShipment(0), withoutCarrierAndShipment(1));
+
+        assertEquals(extract(render(LabelRenderMode.TEMPLATE, dtos)), extract(render(LabelRenderMode.DIRECT, dtos)));
+    }
+
+    @Test
+    void everyModeAcceptsMissingText() {
+        List<ShippingLabelDto> dtos = List.of(withoutCarrierAndShipment(0));
+        for (LabelRenderMode renderMode : LabelRenderMode.values()) {
+            assertDoesNotThrow(() -> render(renderMode, dtos));
+        }
+    }
+
+    private static ShippingLabelDto withoutCarrierAndShipment(int index) {
+        ShippingLabelDto dto = sample(index);
+        ShippingLabelDtoSetters.set(dto, ShippingLabelDtoSetters.forProperty("carrier"), null);
+        ShippingLabelDtoSetters.set(dto, ShippingLabelDtoSetters.forProperty("shipmentDisplayId"), null);
+        return dto;
+    }
+
+    /** Long values for the free-text fields, so they wrap and clip within their rows. */
+    private static ShippingLabelDto sample(int index) {
+        return ShippingLabelDtoSetters.populate(setter -> {
+            Class<?> type = setter.getParameterTypes()[0];
+            String property = setter.getName().substring(3).toLowerCase();
+            if (type == String.class) {
+                if (property.contains("address") || property.contains("details") || property.contains("item")) {
+                    return LONG_TEXT + " " + index;
+                }
+                if (property.contains("awb")) return "AWB00000" + index;
+                return setter.getName().substring(3) + " " + index;
+            }
+            if (type == Long.class || type == long.class) return 1000L + index;
+            if (type == Integer.class || type == int.class) return 10 + index;
+            if (type == Boolean.class || type == boolean.class) return index % 2 == 0;
+            if (type.isEnum()) return type.getEnumConstants()[index % type.getEnumConstants().length];
+            return null;
+        });
+    }
+
+    private static byte[] render(LabelRenderMode renderMode, List<ShippingLabelDto> dtos)
+            throws DispatchDocumentException {
+        ShippingLabelPdfGenerator generator = new ShippingLabelPdfGenerator();
+        generator.setRenderMode(renderMode);
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        generator.generateShippingLabel(dtos, stream);
+        return stream.toByteArray();
+    }
+
+    /** Every text run and image placement as "page x y content", sorted. */
+    private static List<String> extract(byte[] pdf) throws IOException {
+        List<String> runs = new ArrayList<>();
+        PdfReader reader = new PdfReader(pdf);
+        PdfReaderContentParser parser = new PdfReaderContentParser(reader);
+        for (int page = 1; page <= reader.getNumberOfPages(); page++) {
+            int number = page;
+            parser.processContent(page, new RenderListener() {
+                @Override
+                public void beginTextBlock() {
+                }
+
+                @Override
+                public void endTextBlock() {
+                }
+
+                @Override
+                public void renderText(TextRenderInfo text) {
+                    String content = text.getText().strip();
+                    if (content.isEmpty()) return;
+                    Vector start = text.getBaseline().getStartPoint();
+                    runs.add(String.format("%d %.1f %.1f %s", number, start.get(Vector.I1), start.get(Vector.I2), content));
+                }
+
+                @Override
+                public void renderImage(ImageRenderInfo image) {
+                    Matrix ctm = image.getImageCTM();
+                    runs.add(String.format("%d %.1f %.1f image %.1fx%.1f", number,
+                            ctm.get(Matrix.I31), ctm.get(Matrix.I32), ctm.get(Matrix.I11), ctm.get(Matrix.I22)));
+                }
+            });
+        }
+        reader.close();
+        Collections.sort(runs);
+        return runs;
+    }
+}
@@ -0,0 +1,184 @@
+package com.project.util;
+
+import com.project.dto.ShippingLabelDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ManifestReaderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void csvQuotedFieldsKeepCommasAndDoubledQuotes() throws IOException {
+        List<ShippingLabelDto> dtos = read("manifest.csv",
+                "awb,item_name,carrier",
+                "AWB1,\"Cotton, \"\"blue\"\" T-Shirt\",Delhivery");
+
+        assertEquals(1, dtos.size());
+        assertEquals("AWB1", dtos.get(0).getAwb());
+        assertEquals("Cotton, \"blue\" T-Shirt", dtos.get(0).getItemName());
+        assertEquals("Delhivery", dtos.get(0).getCarrier());
+    }
+
+    @Test
+    void csvQuotedFieldSpansLines() throws IOException {
+        List<ShippingLabelDto> dtos = read("manifest.csv",
+                "awb,user_details,carrier",
+                "AWB1,\"Flat 4",
+                "Main Road, City\",Delhivery",
+                "AWB2,Flat 5,BlueDart");
+
+        assertEquals(2, dtos.size());
+        assertEquals("Flat 4\nMain Road, City", dtos.get(0).getUserDetails());
+        assertEquals("Delhivery", dtos.get(0).getCarrier());
+        assertEquals("AWB2", dtos.get(1).getAwb());
+    }
+
+    @Test
+    void csvHeaderMatchesPropertiesLooselyAndSkipsUnknownColumns() throws IOException {
+        List<ShippingLabelDto> dtos = read("manifest.csv",
+                "Trip-ID,SEQUENCE,unknown,priority",
+                "1001,7,ignored,TRUE",
+                "",
+                "1002,,ignored,false");
+
+        assertEquals(2, dtos.size());
+        assertEquals(Long.valueOf(1001), dtos.get(0).getTripId());
+        assertEquals(Integer.valueOf(7), dtos.get(0).getSequence());
+        assertEquals(Boolean.TRUE, dtos.get(0).getPriority());
+        assertNull(dtos.get(1).getSequence());
+        assertEquals(Boolean.FALSE, dtos.get(1).getPriority());
+    }
+
+    @Test
+    void csvByteOrderMarkIsIgnored() throws IOException {
+        List<ShippingLabelDto> dtos = read("manifest.csv", "\uFEFFawb,carrier", "AWB1,Delhivery");
+
+        assertEquals("AWB1", dtos.get(0).getAwb());
+    }
+
+    @Test
+    void jsonByteOrderMarkIsIgnored() throws IOException {
+        List<ShippingLabelDto> dtos = read("manifest.jsonl", "\uFEFF{\"awb\": \"AWB1\"}");
+
+        assertEquals("AWB1", dtos.get(0).getAwb());
+    }
+
+    @Test
+    void priorityOtherThanTrueOrFalseIsRejected() throws IOException {
+        for (String flag : new String[] {"1", "yes", "Y"}) {
+            IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                    () -> read("manifest.csv", "awb,priority", "AWB1," + flag));
+            assertTrue(ex.getMessage().startsWith("Manifest line 2: bad value '" + flag + "' for Priority"),
+                    ex.getMessage());
+        }
+    }
+
+    @Test
+    void unterminatedQuoteReportsTheLastLineRead() throws IOException {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> read("manifest.csv", "awb,item_name", "AWB1,ok", "AWB2,\"open", "still open"));
+
+        assertEquals("Manifest line 4: unterminated quoted field", ex.getMessage());
+    }
+
+    @Test
+    void badValueReportsItsLineAfterAMultiLineField() throws IOException {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> read("manifest.csv", "user_details,trip_id", "\"two", "lines\",1", "x,not-a-number"));
+
+        assertTrue(ex.getMessage().startsWith("Manifest line 4: bad value 'not-a-number' for TripId"),
+                ex.getMessage());
+    }
+
+    @Test
+    void jsonEscapesAndLiterals() throws IOException {
+        List<ShippingLabelDto> dtos = read("manifest.jsonl",
+                "{\"awb\": \"AWB\\\"1\\\"\", \"user_details\": \"Flat 4\\nMain Road\\t\\u00e9\\\\\","
+                        + " \"trip_id\": 1001, \"priority\": true, \"carrier\": null, \"unknown\": 3}",
+                "",
+                "{}");
+
+        assertEquals(2, dtos.size());
+        assertEquals("AWB\"1\"", dtos.get(0).getAwb());
+        assertEquals("Flat 4\nMain Road\t\u00e9\\", dtos.get(0).getUserDetails());
+        assertEquals(Long.valueOf(1001), dtos.get(0).getTripId());
+        assertEquals(Boolean.TRUE, dtos.get(0).getPriority());
+    }
+
+    @Test
+    void jsonErrorsReportLineAndColumn() throws IOException {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> read("manifest.jsonl", "{\"awb\": \"AWB1\"}", "", "{\"awb\" \"AWB2\"}"));
+        assertEquals("Manifest line 3: expected ':' at column 8", ex.getMessage());
+
+        ex = assertThrows(IllegalArgumentException.class,
+                () -> read("manifest.jsonl", "{\"awb\": \"AWB1}"));
+        assertEquals("Manifest line 1: unterminated string", ex.getMessage());
+    }
+
+    @Test
+    void skipCountsRecordsNotLines() throws IOException {
+        Path manifest = this.write("manifest.csv",
+                "awb,user_details", "AWB0,\"a", "b\"", "AWB1,c", "AWB2,d");
+        try (ManifestReader reader = new ManifestReader(manifest)) {
+            assertEquals(2, reader.skip(2));
+            assertEquals("AWB2", reader.next().getAwb());
+            assertFalse(reader.hasNext());
+            assertEquals(0, reader.skip(5));
+        }
+    }
+
+    @Test
+    void seekResumesAtARecordedPosition() throws IOException {
+        Files.writeString(this.directory.resolve("manifest.csv"),
+                "\uFEFFawb,user_details,trip_id\r\nAWB0,\"Flat \u00e9\r\nRoad\",1\r\nAWB1,Caf\u00e9,2\r\nAWB2,x,bad\r\n",
+                StandardCharsets.UTF_8);
+        List<ManifestReader.Position> positions = new ArrayList<>();
+        try (ManifestReader reader = new ManifestReader(this.directory.resolve("manifest.csv"))) {
+            ManifestReader.Position position = reader.position();
+            while (reader.skip(1) == 1) {
+                positions.add(position);
+                position = reader.position();
+            }
+        }
+
+        try (ManifestReader reader = new ManifestReader(this.directory.resolve("manifest.csv"))) {
+            reader.seek(positions.get(1));
+            assertEquals("AWB1", reader.next().getAwb());
+            reader.seek(positions.get(0));
+            assertEquals("Flat \u00e9\nRoad", reader.next().getUserDetails());
+            reader.seek(positions.get(2));
+            IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, reader::next);
+            assertTrue(ex.getMessage().startsWith("Manifest line 5: "), ex.getMessage());
+        }
+    }
+
+    private List<ShippingLabelDto> read(String name, String... lines) throws IOException {
+        List<ShippingLabelDto> dtos = new ArrayList<>();
+        try (ManifestReader reader = new ManifestReader(this.write(name, lines))) {
+            while (reader.hasNext()) dtos.add(reader.next());
+        }
+        return dtos;
+    }
+
+    private Path write(String name, String... lines) throws IOException {
+        Path manifest = this.directory.resolve(name);
+        Files.writeString(manifest, String.join("\n", lines) + "\n", StandardCharsets.UTF_8);
+        return manifest;
+    }
+}